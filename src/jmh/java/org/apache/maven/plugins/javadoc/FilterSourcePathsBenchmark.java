@@ -0,0 +1,174 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.plugins.javadoc.options.OfflineLink;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link DefaultMojo#filterSourcePaths(Map,MavenProject)} of the source paths of an aggregator, half of which are
+ * outside of its base directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterSourcePathsBenchmark {
+  private static final class StubMojo implements DefaultMojo {
+    private final Log log = new SystemStreamLog();
+    private final Metrics metrics = new Metrics("org.example:project:1.0", "stub");
+
+    @Override
+    public Log getLog() {
+      return log;
+    }
+
+    @Override
+    public boolean isAggregator() {
+      return true;
+    }
+
+    @Override
+    public String getApiDocsTargetPath() {
+      return "apidocs";
+    }
+
+    @Override
+    public int getLinkResolutionThreads() {
+      return 1;
+    }
+
+    @Override
+    public int getLinkCacheTtl() {
+      return 0;
+    }
+
+    @Override
+    public int getMissingLinkTtl() {
+      return 0;
+    }
+
+    @Override
+    public int getModuleThreads() {
+      return 1;
+    }
+
+    @Override
+    public int getPipelineDepth() {
+      return 0;
+    }
+
+    @Override
+    public boolean isIncremental() {
+      return false;
+    }
+
+    @Override
+    public boolean isPruneOfflineLinks() {
+      return false;
+    }
+
+    @Override
+    public boolean isMarkerIndex() {
+      return false;
+    }
+
+    @Override
+    public File getLinkBundle() {
+      return null;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+      return metrics;
+    }
+
+    @Override
+    public String getOutputDirectory() {
+      return "target/apidocs";
+    }
+
+    @Override
+    public Map<String,Collection<String>> getSourcePaths() {
+      return new LinkedHashMap<>();
+    }
+
+    @Override
+    public void executeSuperReport(final Locale unusedLocale) {
+    }
+
+    @Override
+    public void packageReport(final boolean upToDate) {
+    }
+
+    @Override
+    public ArrayList<OfflineLink> collectOfflineLinks() {
+      return new ArrayList<>();
+    }
+
+    @Override
+    public void onComplete() {
+    }
+  }
+
+  @Param({"10", "100", "1000"})
+  private int modules;
+
+  @Param({"4"})
+  private int paths;
+
+  private final DefaultMojo mojo = new StubMojo();
+  private MavenProject project;
+  private Map<String,List<String>> sourcePaths;
+
+  @Setup
+  public void setup() {
+    final File baseDir = new File("/project");
+    project = new MavenProject(new Model());
+    project.setFile(new File(baseDir, "pom.xml"));
+    sourcePaths = Synthetic.sourcePaths(baseDir, modules, paths);
+  }
+
+  @Benchmark
+  public Map<String,Collection<String>> filterSourcePaths() {
+    // The map is filtered in place, so each invocation filters a copy
+    final Map<String,Collection<String>> copy = new LinkedHashMap<>();
+    for (final Map.Entry<String,List<String>> entry : sourcePaths.entrySet()) // [S]
+      copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+
+    return mojo.filterSourcePaths(copy, project);
+  }
+}
\ No newline at end of file
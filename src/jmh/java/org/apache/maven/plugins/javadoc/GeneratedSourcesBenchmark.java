@@ -0,0 +1,74 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the detection of the source roots of generated sources, which backs
+ * {@link DefaultMojo#addGeneratedSourcePaths(org.apache.maven.project.MavenProject)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratedSourcesBenchmark {
+  @Param({"1", "8"})
+  private int roots;
+
+  @Param({"1000", "20000"})
+  private int files;
+
+  private File dir;
+  private File file;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Synthetic.newDir("generated-sources");
+    Synthetic.generatedSources(dir, roots, files);
+    file = new File(dir, "plugin0/org/example/gen0/Type0.java");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Synthetic.delete(dir);
+  }
+
+  @Benchmark
+  public List<String> findSourceRoots() throws IOException {
+    return PackageScanner.findSourceRoots(dir.toPath(), new SystemStreamLog());
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String readPackage() throws IOException {
+    return PackageScanner.readPackage(file.toPath());
+  }
+}
\ No newline at end of file
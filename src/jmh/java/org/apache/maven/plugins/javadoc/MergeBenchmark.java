@@ -0,0 +1,55 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugins.javadoc.options.OfflineLink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link DefaultMojo#merge(OfflineLink[],OfflineLink[])} of the configured and the resolved offline links, which overlap
+ * by half.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MergeBenchmark {
+  @Param({"10", "100", "1000"})
+  private int links;
+
+  private OfflineLink[] configured;
+  private OfflineLink[] resolved;
+
+  @Setup
+  public void setup() {
+    configured = Synthetic.offlineLinks(links, 0);
+    resolved = Synthetic.offlineLinks(links, links / 2);
+  }
+
+  @Benchmark
+  public OfflineLink[] merge() {
+    return DefaultMojo.merge(configured, resolved);
+  }
+}
\ No newline at end of file
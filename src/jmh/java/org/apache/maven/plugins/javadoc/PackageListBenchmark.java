@@ -0,0 +1,67 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks {@link MojoUtil#checkPackageList(String)} of javadocs that only have an {@code element-list}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PackageListBenchmark {
+  @Param({"10", "1000", "10000"})
+  private int packages;
+
+  private File dir;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Synthetic.newDir("package-list");
+    Synthetic.elementList(dir, packages);
+  }
+
+  @Setup(Level.Invocation)
+  public void deletePackageList() {
+    new File(dir, "package-list").delete();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Synthetic.delete(dir);
+  }
+
+  @Benchmark
+  public File checkPackageList() throws IOException {
+    MojoUtil.checkPackageList(dir.getPath());
+    return dir;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the submission of every project of a synthetic reactor to a {@link ReverseExecutor}, in reactor order, or in a random
+ * order in which every project still follows its parent. The memory of the executor is measured by running the benchmark with the
+ * {@code gc} profiler ({@code -Djmh.args="-prof gc"}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReverseExecutorBenchmark {
+  @Param({"100", "1000", "10000"})
+  private int modules;
+
+  @Param({"10"})
+  private int fanOut;
+
+  @Param({"false", "true"})
+  private boolean shuffled;
+
+  private List<MavenProject> reactor;
+
+  @Setup
+  public void setup() {
+    reactor = Synthetic.reactor(new File(System.getProperty("java.io.tmpdir"), "reactor"), modules, fanOut);
+    if (shuffled)
+      reactor = shuffle(reactor);
+  }
+
+  /**
+   * Returns the projects of the specified reactor in a random order in which every project follows its parent, as it would in a
+   * reactor whose modules are ordered by their dependencies.
+   *
+   * @param reactor The projects in reactor order.
+   * @return The projects of the specified reactor in a random order in which every project follows its parent.
+   */
+  private static List<MavenProject> shuffle(final List<MavenProject> reactor) {
+    final Map<MavenProject,List<MavenProject>> children = new HashMap<>();
+    for (int i = 1, i$ = reactor.size(); i < i$; ++i) // [RA]
+      children.computeIfAbsent(reactor.get(i).getParent(), (final MavenProject k) -> new ArrayList<>()).add(reactor.get(i));
+
+    final Random random = new Random(reactor.size());
+    final List<MavenProject> order = new ArrayList<>(reactor.size());
+    final List<MavenProject> ready = new ArrayList<>();
+    ready.add(reactor.get(0));
+    while (ready.size() > 0) {
+      final int index = random.nextInt(ready.size());
+      final MavenProject next = ready.get(index);
+      ready.set(index, ready.get(ready.size() - 1));
+      ready.remove(ready.size() - 1);
+      order.add(next);
+      ready.addAll(children.getOrDefault(next, Collections.emptyList()));
+    }
+
+    return order;
+  }
+
+  @Benchmark
+  public int submit() {
+    final AtomicInteger executed = new AtomicInteger();
+    final ReverseExecutor executor = new ReverseExecutor();
+    for (int i = 0, i$ = reactor.size(); i < i$; ++i) // [RA]
+      executor.submit(reactor.get(i), executed::incrementAndGet);
+
+    return executed.get();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.javadoc.options.OfflineLink;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generators of the synthetic inputs of the benchmarks: generated-sources trees, reactor layouts, offline links, source paths and
+ * package-lists of several sizes.
+ */
+final class Synthetic {
+  private static final String HEADER = "/*\n * Generated by a synthetic code generator.\n * Do not edit.\n */\n\n";
+
+  static File newDir(final String name) throws IOException {
+    return Files.createTempDirectory("javadocio-" + name).toFile();
+  }
+
+  static void delete(final File dir) throws IOException {
+    try (final Stream<Path> stream = Files.walk(dir.toPath())) {
+      stream.sorted(Comparator.reverseOrder()).forEach((final Path path) -> path.toFile().delete());
+    }
+  }
+
+  /**
+   * Writes a generated-sources tree of {@code files} {@code .java} files, spread over {@code roots} source roots of 10 packages
+   * each. Every file has a comment and annotations before its {@code package} declaration, as generated code usually does.
+   *
+   * @param dir The generated-sources directory.
+   * @param roots The number of source roots.
+   * @param files The number of files.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static void generatedSources(final File dir, final int roots, final int files) throws IOException {
+    for (int i = 0; i < files; ++i) {
+      final String packageName = "org.example.gen" + (i % 10);
+      final File packageDir = new File(dir, "plugin" + (i % roots) + "/" + packageName.replace('.', '/'));
+      packageDir.mkdirs();
+      final String source = HEADER + "@javax.annotation.Generated(value = \"synthetic\", date = \"2019-01-01\")\npackage " + packageName + ";\n\npublic class Type" + i + " {\n}\n";
+      Files.write(new File(packageDir, "Type" + i + ".java").toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static MavenProject newProject(final MavenProject parent, final File dir, final String artifactId, final String packaging) {
+    final Model model = new Model();
+    model.setGroupId("org.example");
+    model.setArtifactId(artifactId);
+    model.setVersion("1.0");
+    model.setPackaging(packaging);
+    final MavenProject project = new MavenProject(model);
+    project.setFile(new File(dir, "pom.xml"));
+    project.setParent(parent);
+    return project;
+  }
+
+  private static void addDependency(final MavenProject project, final MavenProject dependency) {
+    final Dependency d = new Dependency();
+    d.setGroupId(dependency.getGroupId());
+    d.setArtifactId(dependency.getArtifactId());
+    d.setVersion(dependency.getVersion());
+    project.getModel().addDependency(d);
+  }
+
+  /**
+   * Returns a reactor of {@code modules} projects in reactor order, arranged as a tree in which every aggregator has {@code fanOut}
+   * modules. Every leaf module depends on the leaf module that precedes it.
+   *
+   * @param dir The root directory of the reactor.
+   * @param modules The number of projects.
+   * @param fanOut The number of modules of every aggregator.
+   * @return A reactor of {@code modules} projects in reactor order.
+   */
+  static List<MavenProject> reactor(final File dir, final int modules, final int fanOut) {
+    final List<MavenProject> projects = new ArrayList<>(modules);
+    final int aggregators = (modules - 1) / fanOut + ((modules - 1) % fanOut == 0 ? 0 : 1);
+    projects.add(newProject(null, dir, "m0", aggregators > 0 ? "pom" : "jar"));
+    MavenProject previousLeaf = null;
+    for (int i = 1; i < modules; ++i) {
+      final MavenProject parent = projects.get((i - 1) / fanOut);
+      final String artifactId = "m" + i;
+      parent.getModel().addModule(artifactId);
+      final MavenProject project = newProject(parent, new File(parent.getBasedir(), artifactId), artifactId, i < aggregators ? "pom" : "jar");
+      if (i >= aggregators) {
+        if (previousLeaf != null)
+          addDependency(project, previousLeaf);
+
+        previousLeaf = project;
+      }
+
+      projects.add(project);
+    }
+
+    return projects;
+  }
+
+  /**
+   * Returns {@code count} offline links, starting at link number {@code offset}.
+   *
+   * @param count The number of links.
+   * @param offset The number of the first link.
+   * @return {@code count} offline links, starting at link number {@code offset}.
+   */
+  static OfflineLink[] offlineLinks(final int count, final int offset) {
+    final OfflineLink[] links = new OfflineLink[count];
+    for (int i = 0; i < count; ++i) {
+      links[i] = new OfflineLink();
+      links[i].setUrl("https://static.javadoc.io/org.example/artifact" + (offset + i) + "/1.0/");
+      links[i].setLocation("/repo/org/example/artifact" + (offset + i) + "/1.0/artifact" + (offset + i) + "-1.0-javadoc");
+    }
+
+    return links;
+  }
+
+  /**
+   * Returns {@code count} source paths of {@code modules} modules, of which every other path is outside of {@code baseDir}.
+   *
+   * @param baseDir The base directory of the project.
+   * @param modules The number of modules.
+   * @param count The number of source paths per module.
+   * @return {@code count} source paths of {@code modules} modules.
+   */
+  static Map<String,List<String>> sourcePaths(final File baseDir, final int modules, final int count) {
+    final Map<String,List<String>> sourcePaths = new LinkedHashMap<>();
+    for (int i = 0; i < modules; ++i) {
+      final List<String> paths = new ArrayList<>(count);
+      for (int j = 0; j < count; ++j)
+        paths.add((j % 2 == 0 ? baseDir.getAbsolutePath() : "/elsewhere") + "/m" + i + "/src" + j + "/main/java");
+
+      sourcePaths.put("org.example:m" + i, paths);
+    }
+
+    return sourcePaths;
+  }
+
+  /**
+   * Writes an {@code element-list} of {@code packages} packages to the specified directory.
+   *
+   * @param dir The directory.
+   * @param packages The number of packages.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static void elementList(final File dir, final int packages) throws IOException {
+    dir.mkdirs();
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < packages; ++i)
+      builder.append("org.example.p").append(i / 100).append(".q").append(i).append('\n');
+
+    Files.write(new File(dir, "element-list").toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Synthetic() {
+  }
+}
\ No newline at end of file
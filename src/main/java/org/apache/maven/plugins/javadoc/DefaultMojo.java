@@ -17,19 +17,21 @@
 package org.apache.maven.plugins.javadoc;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
@@ -121,60 +123,14 @@ public interface DefaultMojo {
       if (!generatedSources.exists())
         return;
 
-      final ArrayList<String> paths = new ArrayList<>();
-      Files
-        .walk(generatedSources.toPath())
-        .filter((final Path p) -> p.getFileName().toString().endsWith(".java"))
-        .map(Path::toFile)
-        .forEach((final File file) -> {
-          final String filePath = file.getParentFile().getAbsolutePath();
-          for (int i = 0, i$ = paths.size(); i < i$; ++i) // [RA]
-            if (filePath.startsWith(paths.get(i)))
-              return;
-
-          boolean inBlockQuote = false;
-          String packageName = null;
-          try (final Scanner scanner = new Scanner(file)) {
-            scanner.useDelimiter("\r|\n");
-            while (scanner.hasNext()) {
-              final String line = scanner.next().trim();
-              if (inBlockQuote) {
-                // Matches a line that has a closing block comment "*/" sequence
-                if (line.matches("^(([^*]|(\\*[^/]))*\\*+/([^/]|(/[^*])|(/$))*)*$"))
-                  inBlockQuote = false;
-                else
-                  continue;
-              }
-
-              if (line.length() == 0 || line.startsWith("//")) {
-                continue;
-              }
-
-              // Matches a line that has an opening block comment "/*" sequence
-              if (line.matches("^(([^/]|(/[^*]))*/+\\*([^*]|(\\*[^/])|(\\*$))*)*$")) {
-                inBlockQuote = true;
-                continue;
-              }
-
-              if (line.startsWith("package ")) {
-                packageName = line.substring(8, line.indexOf(';'));
-                break;
-              }
-
-              if (line.contains("class ") || line.contains("interface ") || line.contains("@interface ") || line.contains("enum ")) {
-                break;
-              }
-            }
-          }
-          catch (final FileNotFoundException e) {
-            throw new IllegalStateException(e);
-          }
-
-          if (packageName != null)
-            paths.add(filePath.substring(0, filePath.length() - packageName.length() - 1));
-          else
-            getLog().warn("Could not determine package name of: " + file.getAbsolutePath());
-        });
+      final long start = getMetrics().start();
+      final File cacheFile = new File(project.getBuild().getDirectory(), "javadocio-packages.cache");
+      final PackageScanner.Cache cache = PackageScanner.Cache.load(cacheFile);
+      final List<String> paths = PackageScanner.findSourceRoots(generatedSources.toPath(), cache, getLog());
+      cache.save(cacheFile);
+      getMetrics().stop("scanGeneratedSources", start);
+      getMetrics().count("packageCacheHits", cache.getHits());
+      getMetrics().count("packageCacheMisses", cache.getMisses());
 
       if (paths.size() == 0)
         return;
@@ -194,27 +150,208 @@ public interface DefaultMojo {
     }
   }
 
+  /**
+   * Returns the {@link Fingerprint} of the inputs of the javadoc run of the specified project: the configuration of this execution,
+   * the sourcepath and the source files under it, the offline links and their package-lists, and the dependencies.
+   *
+   * @param project The {@link MavenProject}.
+   * @return The {@link Fingerprint} of the inputs of the javadoc run of the specified project.
+   * @throws IOException If an I/O error has occurred.
+   * @throws MavenReportException If the source paths cannot be determined.
+   */
+  default Fingerprint getFingerprint(final MavenProject project) throws IOException, MavenReportException {
+    final Fingerprint fingerprint = new Fingerprint();
+    final MojoExecution execution = (MojoExecution)MojoUtil.getField(AbstractJavadocMojo.class, this, "mojo");
+    if (execution != null)
+      fingerprint.add(execution.getMojoDescriptor().getId()).add(execution.getConfiguration());
+
+    fingerprint.add(System.getProperty("java.version")).add(getSourcepath());
+    final OfflineLink[] offlineLinks = getOfflineLinks();
+    if (offlineLinks != null) {
+      for (final OfflineLink offlineLink : offlineLinks) { // [A]
+        fingerprint.add(offlineLink.getUrl()).add(offlineLink.getLocation());
+        if (offlineLink.getLocation() != null)
+          fingerprint.addContents(new File(offlineLink.getLocation(), "package-list")).addContents(new File(offlineLink.getLocation(), "element-list"));
+      }
+    }
+
+    for (final Artifact artifact : project.getArtifacts()) { // [S]
+      fingerprint.add(artifact.getId());
+      final File file = artifact.getFile();
+      if (file != null && file.isFile())
+        fingerprint.add(file.length()).add(file.lastModified());
+    }
+
+    for (final Map.Entry<String,Collection<String>> entry : getSourcePaths().entrySet()) { // [S]
+      fingerprint.add(entry.getKey());
+      for (final String path : entry.getValue()) // [C]
+        fingerprint.add(path).addContents(new File(path));
+    }
+
+    fingerprint.addResources(project.getBasedir(), (File)MojoUtil.getField(AbstractJavadocMojo.class, this, "javadocDirectory"), (File)MojoUtil.getField(AbstractJavadocMojo.class, this, "overview"), (String)MojoUtil.getField(AbstractJavadocMojo.class, this, "stylesheetfile"), (String)MojoUtil.getField(AbstractJavadocMojo.class, this, "helpfile"));
+    return fingerprint;
+  }
+
+  /**
+   * Returns the specified offline links without the links whose package-lists contain no package that is referenced by the sources
+   * of this module. Links without a readable package-list are retained. Packages that are claimed by more than one link are
+   * reported, because javadoc links them to the first of the links only.
+   *
+   * @param offlineLinks The offline links.
+   * @return The specified offline links without the links that are not referenced by the sources of this module.
+   * @throws IOException If an I/O error has occurred.
+   * @throws MavenReportException If the source paths cannot be determined.
+   */
+  default ArrayList<OfflineLink> pruneOfflineLinks(final ArrayList<OfflineLink> offlineLinks) throws IOException, MavenReportException {
+    final long start = getMetrics().start();
+    final PackageIndex index = new PackageIndex(offlineLinks);
+    final Map<String,List<String>> linksToPackages = new LinkedHashMap<>();
+    for (final Map.Entry<String,int[]> entry : index.getOverlaps().entrySet()) { // [S]
+      final StringBuilder builder = new StringBuilder();
+      for (final int link : entry.getValue()) // [A]
+        builder.append(builder.length() > 0 ? ", " : "").append(index.getLink(link).getUrl());
+
+      linksToPackages.computeIfAbsent(builder.toString(), (final String k) -> new ArrayList<>()).add(entry.getKey());
+    }
+
+    for (final Map.Entry<String,List<String>> entry : linksToPackages.entrySet()) // [S]
+      getLog().info("Offline links " + entry.getKey() + " claim the same " + entry.getValue().size() + " package(s), such as " + entry.getValue().get(0));
+
+    final ArrayList<String> sourcePaths = new ArrayList<>();
+    for (final Collection<String> paths : getSourcePaths().values()) // [C]
+      sourcePaths.addAll(paths);
+
+    final BitSet used = index.findReferences(sourcePaths);
+    final ArrayList<OfflineLink> pruned = new ArrayList<>(used.cardinality());
+    for (int i = 0, i$ = offlineLinks.size(); i < i$; ++i) { // [RA]
+      if (used.get(i))
+        pruned.add(offlineLinks.get(i));
+      else
+        getLog().debug("Pruning unreferenced offline link: " + offlineLinks.get(i).getUrl());
+    }
+
+    getLog().info("Linking " + pruned.size() + " of " + offlineLinks.size() + " offline links (" + index.getPackageCount() + " packages indexed)");
+    getMetrics().count("prunedLinks", offlineLinks.size() - pruned.size());
+    getMetrics().stop("pruneOfflineLinks", start);
+    return pruned;
+  }
+
+  /**
+   * Writes the summary of the {@link Metrics} of all modules of the reactor to the build directory of the specified top-level
+   * project, and logs the modules that took the longest.
+   *
+   * @param topLevelProject The top-level project of the reactor.
+   */
+  default void reportMetrics(final MavenProject topLevelProject) {
+    try {
+      Metrics.writeSummary(new File(topLevelProject.getBuild().getDirectory(), "javadocio-summary.json"), getLog());
+    }
+    catch (final IOException e) {
+      getLog().warn("Unable to write metrics summary: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Submits the javadoc run of the specified project to the {@link ReverseExecutor}, in two stages: the collection of the offline
+   * links, which is I/O-bound, and the generation and packaging of the javadocs, which is CPU-bound. With more than one
+   * {@link #getModuleThreads() module thread}, the first stage runs in a pipeline of {@link #getPipelineDepth()} threads, overlapping
+   * the generation of the javadocs of other modules, and the second stage takes a module thread only once the first has completed.
+   *
+   * @param project The {@link MavenProject}.
+   * @param reverseExecutor The {@link ReverseExecutor}.
+   * @param unusedLocale The locale.
+   */
   default void executeReport(final MavenProject project, final ReverseExecutor reverseExecutor, final Locale unusedLocale) {
     getLog().debug("Submitting " + project.getName() + " " + project.getVersion());
-    reverseExecutor.submit(project, () -> {
+    reverseExecutor.setThreads(getModuleThreads());
+    reverseExecutor.setPipelineDepth(getPipelineDepth());
+    final AtomicReference<ArrayList<OfflineLink>> collected = new AtomicReference<>();
+    final AtomicLong prepareTime = new AtomicLong();
+    final boolean complete = reverseExecutor.submit(project, () -> {
+      final Metrics metrics = getMetrics();
+      final long phase = metrics.start();
+      try {
+        ArrayList<OfflineLink> offlineLinks = collectOfflineLinks();
+        if (isPruneOfflineLinks())
+          offlineLinks = pruneOfflineLinks(offlineLinks);
+
+        collected.set(offlineLinks);
+      }
+      catch (final IOException | MavenReportException | MojoExecutionException | MojoFailureException e) {
+        throw new IllegalStateException(e);
+      }
+      finally {
+        prepareTime.set(System.nanoTime() - phase);
+        metrics.stop("collectOfflineLinks", phase);
+      }
+    }, () -> {
       getLog().info("Running " + project.getName() + " " + project.getVersion());
+      final Metrics metrics = getMetrics();
+      // The total includes the time of the collection of the offline links, but not the time it has waited in the pipeline
+      final long start = metrics.start() - prepareTime.get();
       try {
-        final ArrayList<OfflineLink> offlineLinks = collectOfflineLinks();
+        final ArrayList<OfflineLink> offlineLinks = collected.getAndSet(null);
         setOfflineLinks(offlineLinks.toArray(new OfflineLink[offlineLinks.size()]));
         if (isAggregator())
           project.setExecutionRoot(true);
 
-        executeSuperReport(unusedLocale);
+        final File outputDirectory = new File(getOutputDirectory());
+        long phase = metrics.start();
+        final Fingerprint fingerprint = isIncremental() ? getFingerprint(project) : null;
+        metrics.stop("fingerprint", phase);
+        if (fingerprint != null && fingerprint.matches(outputDirectory)) {
+          getLog().info("Skipping " + project.getName() + " " + project.getVersion() + ": javadoc inputs are unchanged");
+          phase = metrics.start();
+          packageReport(true);
+          metrics.stop("package", phase);
+        }
+        else {
+          Fingerprint.clear(outputDirectory);
+          phase = metrics.start();
+          executeSuperReport(unusedLocale);
+          metrics.stop("javadoc", phase);
+          phase = metrics.start();
+          packageReport(false);
+          metrics.stop("package", phase);
+          if (fingerprint != null)
+            fingerprint.write(outputDirectory);
+        }
       }
-      catch (final MavenReportException | MojoExecutionException | MojoFailureException e) {
+      catch (final IOException | MavenReportException e) {
         throw new IllegalStateException(e);
       }
+      finally {
+        metrics.stop(Metrics.TOTAL, start);
+        try {
+          metrics.write(new File(project.getBuild().getDirectory(), "javadocio-" + metrics.getGoal() + "-metrics.json"));
+        }
+        catch (final IOException e) {
+          getLog().warn("Unable to write metrics: " + e.getMessage());
+        }
+      }
     });
+
+    if (complete)
+      onComplete();
   }
 
   Log getLog();
   boolean isAggregator();
   String getApiDocsTargetPath();
+  int getLinkResolutionThreads();
+  int getLinkCacheTtl();
+  int getMissingLinkTtl();
+  int getModuleThreads();
+  int getPipelineDepth();
+  boolean isIncremental();
+  boolean isPruneOfflineLinks();
+  boolean isMarkerIndex();
+  File getLinkBundle();
+  Metrics getMetrics();
+  String getOutputDirectory();
+  Map<String,Collection<String>> getSourcePaths() throws MavenReportException;
   void executeSuperReport(Locale unusedLocale) throws MavenReportException;
+  void packageReport(boolean upToDate) throws MavenReportException;
   ArrayList<OfflineLink> collectOfflineLinks() throws MojoExecutionException, MojoFailureException;
+  void onComplete();
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.settings.Settings;
+
+/**
+ * Exports the link cache of the local repository, with the {@code package-list} and {@code element-list} files of its links, to a
+ * bundle that seeds the link cache of another local repository via the {@code linkBundle} parameter of the {@code javadoc} and
+ * {@code jar} goals.
+ */
+@Mojo(name="export-links", requiresProject=false, threadSafe=true)
+public class ExportLinksMojo extends AbstractMojo {
+  @Parameter(defaultValue="${settings}", readonly=true, required=true)
+  private Settings _settings;
+
+  @Parameter(property="linkBundle", defaultValue="${project.build.directory}/javadocio-links.zip")
+  private File linkBundle;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    final long start = System.currentTimeMillis();
+    try {
+      final int entries = LinkCache.of(new File(_settings.getLocalRepository())).exportBundle(linkBundle);
+      getLog().info("Exported " + entries + " links to " + linkBundle + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+    catch (final IOException e) {
+      throw new MojoExecutionException("Unable to export links to " + linkBundle + ": " + e.getMessage(), e);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A SHA-256 digest of the inputs of a javadoc run, which is written next to the output directory of the run, so that the next run
+ * can be skipped if its inputs are unchanged.
+ */
+final class Fingerprint {
+  private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+  private final MessageDigest digest;
+  private final byte[] buffer = new byte[65536];
+  private String hex;
+
+  Fingerprint() {
+    try {
+      this.digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Adds the specified value to this fingerprint.
+   *
+   * @param value The value.
+   * @return This fingerprint.
+   */
+  Fingerprint add(final Object value) {
+    final byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    digest.update(bytes);
+    // Terminate the value, so that adjacent values cannot be confused
+    digest.update((byte)0);
+    return this;
+  }
+
+  /**
+   * Adds the relative paths and contents of the regular files in the specified directory to this fingerprint, in the order of their
+   * paths. If {@code file} is a regular file, its contents are added.
+   *
+   * @param file The directory or file.
+   * @return This fingerprint.
+   * @throws IOException If an I/O error has occurred.
+   */
+  Fingerprint addContents(final File file) throws IOException {
+    if (!file.exists())
+      return add(null);
+
+    final Path root = file.toPath();
+    final List<Path> paths;
+    try (final Stream<Path> stream = Files.walk(root)) {
+      paths = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    for (int i = 0, i$ = paths.size(); i < i$; ++i) { // [RA]
+      final Path path = paths.get(i);
+      add(root.relativize(path));
+      try (final InputStream in = Files.newInputStream(path)) {
+        for (int read; (read = in.read(buffer)) != -1; digest.update(buffer, 0, read)); // [ST]
+      }
+
+      digest.update((byte)0);
+    }
+
+    return this;
+  }
+
+  /**
+   * Adds the contents of the resources of the javadocs that are not among the source paths to this fingerprint: the javadoc
+   * directory with its doc-files, the overview, and the stylesheet and help files, whose paths are resolved against the specified
+   * basedir if relative.
+   *
+   * @param basedir The basedir of the project.
+   * @param javadocDirectory The javadoc directory, or {@code null}.
+   * @param overview The overview file, or {@code null}.
+   * @param stylesheetfile The path of the stylesheet file, or {@code null}.
+   * @param helpfile The path of the help file, or {@code null}.
+   * @return This fingerprint.
+   * @throws IOException If an I/O error has occurred.
+   */
+  Fingerprint addResources(final File basedir, final File javadocDirectory, final File overview, final String stylesheetfile, final String helpfile) throws IOException {
+    for (final File file : new File[] {javadocDirectory, overview, resolve(basedir, stylesheetfile), resolve(basedir, helpfile)}) { // [A]
+      if (file == null)
+        add(null);
+      else
+        add(file).addContents(file);
+    }
+
+    return this;
+  }
+
+  private static File resolve(final File basedir, final String path) {
+    if (path == null)
+      return null;
+
+    final File file = new File(path);
+    return file.isAbsolute() ? file : new File(basedir, path);
+  }
+
+  private static File getFile(final File outputDirectory) {
+    return new File(outputDirectory.getParentFile(), outputDirectory.getName() + ".fingerprint");
+  }
+
+  /**
+   * Returns whether the specified output directory exists, and was generated from inputs with this fingerprint.
+   *
+   * @param outputDirectory The output directory.
+   * @return Whether the specified output directory exists, and was generated from inputs with this fingerprint.
+   */
+  boolean matches(final File outputDirectory) {
+    final File file = getFile(outputDirectory);
+    try {
+      return outputDirectory.isDirectory() && file.exists() && new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).equals(toString());
+    }
+    catch (final IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Deletes the fingerprint of the specified output directory, so that a run that does not complete is not mistaken for an up to
+   * date one.
+   *
+   * @param outputDirectory The output directory.
+   */
+  static void clear(final File outputDirectory) {
+    getFile(outputDirectory).delete();
+  }
+
+  /**
+   * Writes this fingerprint next to the specified output directory.
+   *
+   * @param outputDirectory The output directory.
+   * @throws IOException If an I/O error has occurred.
+   */
+  void write(final File outputDirectory) throws IOException {
+    final File file = getFile(outputDirectory);
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public String toString() {
+    if (hex != null)
+      return hex;
+
+    final byte[] bytes = digest.digest();
+    final char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; ++i) { // [A]
+      chars[i * 2] = hexDigits[(bytes[i] >> 4) & 0xF];
+      chars[i * 2 + 1] = hexDigits[bytes[i] & 0xF];
+    }
+
+    return hex = new String(chars);
+  }
+}
\ No newline at end of file
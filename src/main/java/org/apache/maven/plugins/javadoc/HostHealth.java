@@ -0,0 +1,243 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The health of a host to which {@link MojoUtil} makes requests. The latencies of the last {@value #SAMPLES} successful requests to
+ * the host determine the timeouts of subsequent requests, so that a host that is usually fast is given up on long before the
+ * default timeouts expire when it degrades. Failed requests are retried with jittered exponential backoff. After
+ * {@value #FAILURE_THRESHOLD} consecutive failures the circuit of the host opens, and requests to it fail immediately with a
+ * {@link CircuitOpenException}, until a single trial request is let through after {@value #OPEN_MILLIS} milliseconds. A successful trial closes
+ * the circuit, and a failed trial opens it again.
+ */
+final class HostHealth {
+  private static final Map<String,HostHealth> hosts = new ConcurrentHashMap<>();
+  private static final int SAMPLES = 64;
+  private static final int MIN_SAMPLES = 8;
+  static final int MIN_TIMEOUT = 500;
+  static final int FAILURE_THRESHOLD = 5;
+  static final int MAX_ATTEMPTS = 3;
+  private static final int BACKOFF_BASE = 200;
+  private static final int BACKOFF_CAP = 2000;
+  private static final long OPEN_MILLIS = 30000;
+
+  /**
+   * Thrown when a request is made to a host whose circuit is open.
+   */
+  static final class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = -4186406117307640285L;
+
+    private CircuitOpenException(final String host) {
+      super("Circuit open for " + host + " after " + FAILURE_THRESHOLD + " consecutive failures");
+    }
+  }
+
+  /**
+   * Returns the {@link HostHealth} of the scheme, host and port of the specified {@link URL}.
+   *
+   * @param url The {@link URL}.
+   * @return The {@link HostHealth} of the scheme, host and port of the specified {@link URL}.
+   */
+  static HostHealth of(final URL url) {
+    return of(url, OPEN_MILLIS);
+  }
+
+  /**
+   * Returns the {@link HostHealth} of the scheme, host and port of the specified {@link URL}, which is created with the provided
+   * time for which its circuit stays open if it does not exist.
+   *
+   * @param url The {@link URL}.
+   * @param openMillis The time for which the circuit of the host stays open before a trial request is let through, in
+   *          milliseconds.
+   * @return The {@link HostHealth} of the scheme, host and port of the specified {@link URL}.
+   */
+  static HostHealth of(final URL url, final long openMillis) {
+    return hosts.computeIfAbsent(url.getProtocol() + "://" + url.getAuthority(), (final String host) -> new HostHealth(host, openMillis));
+  }
+
+  /**
+   * Logs the requests, failures and latencies of the hosts to which requests were made, at info level if any of them has failed,
+   * and otherwise at debug level.
+   *
+   * @param log The {@link Log}.
+   */
+  static void report(final Log log) {
+    for (final HostHealth health : hosts.values()) { // [C]
+      final String message = health.getReport();
+      if (message == null)
+        continue;
+
+      if (health.getFailures() > 0)
+        log.info(message);
+      else if (log.isDebugEnabled())
+        log.debug(message);
+    }
+  }
+
+  private final String host;
+  private final long openMillis;
+  private final long[] latencies = new long[SAMPLES];
+  private int samples;
+  private int consecutiveFailures;
+  private long openUntil;
+  private boolean trial;
+  private int requests;
+  private int failures;
+  private int retries;
+  private int rejected;
+  private int opened;
+
+  private HostHealth(final String host, final long openMillis) {
+    this.host = host;
+    this.openMillis = openMillis;
+  }
+
+  /**
+   * Checks whether a request may be made to the host, which is the case if its circuit is closed, or if it is the trial request of
+   * an open circuit whose open time has elapsed.
+   *
+   * @throws CircuitOpenException If the circuit of the host is open.
+   */
+  synchronized void checkAvailable() throws CircuitOpenException {
+    if (openUntil != 0) {
+      if (trial || System.currentTimeMillis() < openUntil) {
+        ++rejected;
+        throw new CircuitOpenException(host);
+      }
+
+      trial = true;
+    }
+
+    ++requests;
+  }
+
+  /**
+   * Records a successful request, which closes the circuit of the host.
+   *
+   * @param millis The latency of the request, in milliseconds.
+   */
+  synchronized void success(final long millis) {
+    latencies[samples++ % SAMPLES] = millis;
+    consecutiveFailures = 0;
+    openUntil = 0;
+    trial = false;
+  }
+
+  /**
+   * Records a request that was let through by {@link #checkAvailable()}, but could not be made, which neither closes nor opens the
+   * circuit of the host, but lets the next request be its trial request.
+   */
+  synchronized void abort() {
+    trial = false;
+  }
+
+  /**
+   * Records a failed request, which opens the circuit of the host if it was the trial request, or if the host has failed
+   * {@value #FAILURE_THRESHOLD} times in a row.
+   */
+  synchronized void failure() {
+    ++failures;
+    if (trial || ++consecutiveFailures >= FAILURE_THRESHOLD) {
+      if (openUntil == 0)
+        ++opened;
+
+      openUntil = System.currentTimeMillis() + openMillis;
+      trial = false;
+    }
+  }
+
+  /**
+   * Sleeps for a random time of up to {@value #BACKOFF_BASE} milliseconds times {@code 2^attempt}, capped at
+   * {@value #BACKOFF_CAP} milliseconds, before the retry of the specified attempt.
+   *
+   * @param attempt The index of the attempt that has failed.
+   * @throws InterruptedIOException If the thread was interrupted.
+   */
+  void backoff(final int attempt) throws InterruptedIOException {
+    synchronized (this) {
+      ++retries;
+    }
+
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(Math.min(BACKOFF_CAP, (long)BACKOFF_BASE << attempt) + 1));
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the latency percentile of the successful requests to the host, or {@code -1} if there have been none.
+   *
+   * @param percentile The percentile, between {@code 0} and {@code 1}.
+   * @return The latency percentile of the successful requests to the host, or {@code -1} if there have been none.
+   */
+  synchronized long getLatency(final double percentile) {
+    final int count = Math.min(samples, SAMPLES);
+    if (count == 0)
+      return -1;
+
+    final long[] sorted = Arrays.copyOf(latencies, count);
+    Arrays.sort(sorted);
+    return sorted[Math.min(count - 1, (int)(percentile * count))];
+  }
+
+  /**
+   * Returns the timeout of the specified attempt of a request to the host, which is four times the 95th latency percentile of the
+   * host, but no less than {@value #MIN_TIMEOUT} milliseconds, and doubled for each retry. Until {@value #MIN_SAMPLES} requests to
+   * the host have succeeded, or if the computed timeout is longer, the default timeout is returned.
+   *
+   * @param defaultTimeout The default timeout, in milliseconds.
+   * @param attempt The index of the attempt.
+   * @return The timeout of the specified attempt of a request to the host.
+   */
+  int getTimeout(final int defaultTimeout, final int attempt) {
+    synchronized (this) {
+      if (samples < MIN_SAMPLES)
+        return defaultTimeout;
+    }
+
+    final long timeout = Math.max(MIN_TIMEOUT, 4 * getLatency(0.95)) << attempt;
+    return (int)Math.min(defaultTimeout, timeout);
+  }
+
+  synchronized boolean isOpen() {
+    return openUntil != 0;
+  }
+
+  synchronized int getFailures() {
+    return failures;
+  }
+
+  private synchronized String getReport() {
+    if (requests + rejected == 0)
+      return null;
+
+    return host + ": " + requests + " requests, " + failures + " failed, " + retries + " retried, " + rejected + " rejected by open circuit (opened " + opened + " times), p50 " + getLatency(0.5) + " ms, p95 " + getLatency(0.95) + " ms";
+  }
+}
\ No newline at end of file
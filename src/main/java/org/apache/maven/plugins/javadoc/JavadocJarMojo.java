@@ -16,13 +16,35 @@
 
 package org.apache.maven.plugins.javadoc;
 
+import static org.apache.maven.plugins.javadoc.MojoUtil.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Manifest;
 
+import org.apache.maven.archiver.MavenArchiveConfiguration;
+import org.apache.maven.archiver.MavenArchiver;
+import org.apache.maven.archiver.PomPropertiesUtil;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.artifact.handler.ArtifactHandler;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -33,18 +55,22 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.plugins.javadoc.options.OfflineLink;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.settings.Settings;
 import org.apache.maven.shared.artifact.resolve.ArtifactResolver;
 import org.apache.maven.shared.dependencies.resolve.DependencyResolver;
 import org.apache.maven.shared.repository.RepositoryManager;
+import org.codehaus.plexus.archiver.jar.JarArchiver;
+import org.codehaus.plexus.archiver.jar.ManifestException;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 
 @Mojo(name="jar", requiresDependencyResolution=ResolutionScope.TEST, defaultPhase=LifecyclePhase.GENERATE_SOURCES, threadSafe=true)
 @Execute(phase=LifecyclePhase.GENERATE_SOURCES)
 public class JavadocJarMojo extends JavadocJar implements DefaultMojo {
   private static final ReverseExecutor reverseExecutor = new ReverseExecutor();
+  private static final Set<String> phasesToPackage = new HashSet<>(Arrays.asList("pre-clean", "clean", "post-clean", "validate", "initialize", "generate-sources", "process-sources", "generate-resources", "process-resources", "compile", "process-classes", "generate-test-sources", "process-test-sources", "generate-test-resources", "process-test-resources", "test-compile", "process-test-classes", "test", "prepare-package", "package"));
 
   @Component
   private ArchiverManager _archiverManager;
@@ -73,6 +99,47 @@ public class JavadocJarMojo extends JavadocJar implements DefaultMojo {
   @Parameter(defaultValue="${detectGeneratedSourcePaths}")
   private boolean detectGeneratedSourcePaths;
 
+  @Parameter(property="linkResolutionThreads", defaultValue="8")
+  private int linkResolutionThreads;
+
+  @Parameter(property="linkCacheTtl", defaultValue="24")
+  private int linkCacheTtl;
+
+  @Parameter(property="missingLinkTtl", defaultValue="24")
+  private int missingLinkTtl;
+
+  @Parameter(property="moduleThreads", defaultValue="1")
+  private int moduleThreads;
+
+  @Parameter(property="pipelineDepth", defaultValue="2")
+  private int pipelineDepth;
+
+  @Parameter(property="incremental", defaultValue="false")
+  private boolean incremental;
+
+  @Parameter(property="pruneOfflineLinks", defaultValue="false")
+  private boolean pruneOfflineLinks;
+
+  @Parameter(property="inProcess", defaultValue="false")
+  private boolean inProcess;
+
+  @Parameter(property="markerIndex", defaultValue="false")
+  private boolean markerIndex;
+
+  @Parameter(property="linkBundle")
+  private File linkBundle;
+
+  @Parameter(property="parallelArchive", defaultValue="false")
+  private boolean parallelArchive;
+
+  @Parameter(property="workers", defaultValue="0")
+  private int workers;
+
+  @Parameter(property="workerHeap")
+  private String workerHeap;
+
+  private Metrics metrics;
+
   @Override
   public boolean isAggregator() {
     return "pom".equalsIgnoreCase(project.getPackaging());
@@ -84,7 +151,65 @@ public class JavadocJarMojo extends JavadocJar implements DefaultMojo {
   }
 
   @Override
-  protected Map<String,Collection<String>> getSourcePaths() throws MavenReportException {
+  public int getLinkResolutionThreads() {
+    return linkResolutionThreads;
+  }
+
+  @Override
+  public int getLinkCacheTtl() {
+    return linkCacheTtl;
+  }
+
+  @Override
+  public int getMissingLinkTtl() {
+    return missingLinkTtl;
+  }
+
+  @Override
+  public int getModuleThreads() {
+    return moduleThreads;
+  }
+
+  @Override
+  public int getPipelineDepth() {
+    return pipelineDepth;
+  }
+
+  @Override
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  @Override
+  public boolean isPruneOfflineLinks() {
+    return pruneOfflineLinks;
+  }
+
+  @Override
+  public boolean isMarkerIndex() {
+    return markerIndex;
+  }
+
+  @Override
+  public File getLinkBundle() {
+    return linkBundle;
+  }
+
+  @Override
+  public Metrics getMetrics() {
+    if (metrics == null)
+      metrics = new Metrics(project.getId(), "jar");
+
+    return metrics;
+  }
+
+  @Override
+  public String getOutputDirectory() {
+    return super.getOutputDirectory();
+  }
+
+  @Override
+  public Map<String,Collection<String>> getSourcePaths() throws MavenReportException {
     return filterSourcePaths(super.getSourcePaths(), project);
   }
 
@@ -93,9 +218,204 @@ public class JavadocJarMojo extends JavadocJar implements DefaultMojo {
     return UnpackDependencies.execute(this, _settings, project, session, _reactorProjects, _archiverManager, _artifactResolver, _dependencyResolver, _repositoryManager, _projectBuilder, _artifactHandlerManager);
   }
 
+  @Override
+  public void onComplete() {
+    UnpackDependencies.report(getLog(), _settings);
+    WorkerPool.shutdown(getLog());
+    WarmupQueue.shutdown(getLog());
+    reportMetrics(session.getTopLevelProject() != null ? session.getTopLevelProject() : project);
+  }
+
+  /**
+   * Generates the javadocs of the project, and bundles them into the javadoc jar. The javadocs are generated by the
+   * {@link ReverseExecutor}, which may defer the generation until the modules of the project are complete, or run it on a worker
+   * thread. The jar is therefore created in {@link #packageReport(boolean)}, rather than here as in
+   * {@link JavadocJar#doExecute()}.
+   */
+  @Override
+  public void doExecute() throws MojoExecutionException {
+    if (skip) {
+      getLog().info("Skipping javadoc generation");
+      return;
+    }
+
+    if (!("pom".equalsIgnoreCase(project.getPackaging()) && isAggregator())) {
+      final ArtifactHandler artifactHandler = project.getArtifact().getArtifactHandler();
+      if (!"java".equals(artifactHandler.getLanguage())) {
+        getLog().info("Not executing Javadoc as the project is not a Java classpath-capable package");
+        return;
+      }
+    }
+
+    try {
+      executeReport(Locale.getDefault());
+      // Await the javadoc jar only if it has to be attached before a following phase of this project, because awaiting blocks
+      // the build thread, and serializes the modules; otherwise the jars are awaited with the last module of the reactor
+      if (!isAggregator() && isAttachAwaited())
+        reverseExecutor.await(project);
+    }
+    catch (final MavenReportException e) {
+      failOnError("MavenReportException: Error while generating Javadoc", e);
+    }
+    catch (final RuntimeException e) {
+      failOnError("RuntimeException: Error while generating Javadoc", e);
+    }
+  }
+
+  /**
+   * Returns whether the javadoc jar of this project has to be awaited in its own execution, because the goals of the session include
+   * a phase after {@code package}, such as {@code install}, or a goal, such as {@code deploy:deploy}, that may use the attached
+   * artifacts of the project. Only if all goals are phases up to {@code package} is the jar not used in the build of the project.
+   *
+   * @return Whether the javadoc jar of this project has to be awaited in its own execution.
+   */
+  private boolean isAttachAwaited() {
+    for (final String goal : session.getGoals()) // [L]
+      if (!phasesToPackage.contains(goal))
+        return true;
+
+    return false;
+  }
+
   @Override
   public void executeSuperReport(final Locale unusedLocale) throws MavenReportException {
-    super.executeReport(unusedLocale);
+    if (workers > 0)
+      JavadocRunner.executeReport(this, WorkerPool.get(workers, workerHeap), getLog());
+    else if (inProcess)
+      JavadocRunner.executeReport(this, null, getLog());
+    else
+      super.executeReport(unusedLocale);
+  }
+
+  /**
+   * Bundles the javadocs into the javadoc jar, and attaches the jar to the project. If the javadocs are up to date, and the jar
+   * exists, the existing jar is attached.
+   *
+   * @param upToDate Whether the javadocs were not regenerated, because their inputs are unchanged.
+   * @throws MavenReportException If an error has occurred while creating the jar.
+   */
+  @Override
+  public void packageReport(final boolean upToDate) throws MavenReportException {
+    try {
+      File destDir = (File)getField(JavadocJar.class, this, "destDir");
+      if (destDir == null)
+        destDir = new File(getOutputDirectory());
+
+      if (!destDir.exists())
+        return;
+
+      final String jarFileName = getField(JavadocJar.class, this, "finalName") + "-" + getClassifier() + ".jar";
+      File outputFile = new File((String)getField(JavadocJar.class, this, "jarOutputDirectory"), jarFileName);
+      if ((!upToDate || !outputFile.exists()) && parallelArchive) {
+        createArchive(destDir, outputFile);
+      }
+      else if (!upToDate || !outputFile.exists()) {
+        final Method generateArchive = JavadocJar.class.getDeclaredMethod("generateArchive", File.class, String.class);
+        generateArchive.setAccessible(true);
+        outputFile = (File)generateArchive.invoke(this, destDir, jarFileName);
+      }
+
+      if ((Boolean)getField(JavadocJar.class, this, "attach"))
+        ((MavenProjectHelper)getField(JavadocJar.class, this, "projectHelper")).attachArtifact(project, "javadoc", getClassifier(), outputFile);
+      else
+        getLog().info("NOT adding javadoc to attached artifacts list.");
+    }
+    catch (final IOException e) {
+      throw new MavenReportException("Error while creating archive: " + e.getMessage(), e);
+    }
+    catch (final InvocationTargetException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof Exception)
+        throw new MavenReportException("Error while creating archive: " + cause.getMessage(), (Exception)cause);
+
+      throw new IllegalStateException(cause);
+    }
+    catch (final IllegalAccessException | NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the timestamp of the entries of a reproducible jar, from the {@code project.build.outputTimestamp} property as an ISO 8601
+   * date or seconds since the epoch, or {@link ParallelJarWriter#DEFAULT_TIME} if the property is not set.
+   */
+  private long getOutputTimestamp() {
+    final String outputTimestamp = project.getProperties().getProperty("project.build.outputTimestamp");
+    if (outputTimestamp == null || outputTimestamp.length() <= 1)
+      return ParallelJarWriter.DEFAULT_TIME;
+
+    try {
+      return outputTimestamp.matches("\\d+") ? Long.parseLong(outputTimestamp) * 1000 : OffsetDateTime.parse(outputTimestamp).toInstant().toEpochMilli();
+    }
+    catch (final DateTimeParseException | NumberFormatException e) {
+      getLog().warn("Invalid project.build.outputTimestamp: " + outputTimestamp);
+      return ParallelJarWriter.DEFAULT_TIME;
+    }
+  }
+
+  /**
+   * Creates the javadoc jar with the {@link ParallelJarWriter}, with the same content as
+   * {@code JavadocJar#generateArchive(File,String)}: the javadocs, the shared archive resources, the Maven descriptor, and the
+   * manifest of the archive configuration.
+   *
+   * @param destDir The directory of the javadocs.
+   * @param jarFile The jar file.
+   * @throws IOException If an I/O error has occurred.
+   * @throws MavenReportException If the manifest cannot be created.
+   */
+  private void createArchive(final File destDir, final File jarFile) throws IOException, MavenReportException {
+    if (jarFile.exists())
+      jarFile.delete();
+
+    final List<File> dirs = new ArrayList<>();
+    dirs.add(destDir);
+    for (final Resource resource : project.getBuild().getResources()) // [L]
+      if (resource.getDirectory().endsWith("maven-shared-archive-resources"))
+        dirs.add(new File(resource.getDirectory()));
+
+    final TreeMap<String,File> files = ParallelJarWriter.scan(dirs, (String[])getField(JavadocJar.class, null, "DEFAULT_INCLUDES"), (String[])getField(JavadocJar.class, null, "DEFAULT_EXCLUDES"));
+    final MavenArchiveConfiguration archive = (MavenArchiveConfiguration)getField(JavadocJar.class, this, "archive");
+    if (archive.isAddMavenDescriptor()) {
+      final String path = "META-INF/maven/" + project.getGroupId() + "/" + project.getArtifactId() + "/";
+      // Create the pom.properties as MavenArchiver does, with the archiver that receives it discarded, as the jar is written here
+      final File pomProperties = new File(project.getBuild().getDirectory(), "maven-archiver/pom.properties");
+      new PomPropertiesUtil().createPomProperties(session, project, new JarArchiver(), archive.getPomPropertiesFile(), pomProperties, archive.isForced());
+
+      // The "META-INF/" entry is written by the ParallelJarWriter itself
+      for (int i = path.indexOf('/', "META-INF/".length()); i != -1; i = path.indexOf('/', i + 1)) // [ST]
+        files.put(path.substring(0, i + 1), project.getBasedir());
+
+      files.put(path + "pom.xml", project.getFile());
+      files.put(path + "pom.properties", pomProperties);
+    }
+
+    File manifestFile = archive.getManifestFile();
+    final File defaultManifestFile = (File)getField(JavadocJar.class, this, "defaultManifestFile");
+    if (manifestFile == null && (Boolean)getField(JavadocJar.class, this, "useDefaultManifestFile") && defaultManifestFile.exists()) {
+      getLog().info("Adding existing MANIFEST to archive. Found under: " + defaultManifestFile.getPath());
+      manifestFile = defaultManifestFile;
+    }
+
+    final Manifest manifest = new Manifest();
+    if (manifestFile != null) {
+      try (final InputStream in = new FileInputStream(manifestFile)) {
+        manifest.read(in);
+      }
+    }
+
+    try {
+      final Manifest configured = new MavenArchiver().getManifest(session, project, archive);
+      manifest.getMainAttributes().putAll(configured.getMainAttributes());
+      manifest.getEntries().putAll(configured.getEntries());
+    }
+    catch (final ManifestException | DependencyResolutionRequiredException e) {
+      throw new MavenReportException("Error while creating manifest: " + e.getMessage(), e);
+    }
+
+    final long start = System.nanoTime();
+    final int entries = ParallelJarWriter.write(jarFile, manifest, files, getOutputTimestamp());
+    getLog().info("Building jar: " + jarFile + " (" + entries + " entries in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms)");
+    getMetrics().count("archiveEntries", entries);
   }
 
   @Override
@@ -16,6 +16,7 @@
 
 package org.apache.maven.plugins.javadoc;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -73,6 +74,44 @@ public class JavadocMojo extends JavadocReport implements DefaultMojo {
   @Parameter(defaultValue="${detectGeneratedSourcePaths}")
   private boolean detectGeneratedSourcePaths;
 
+  @Parameter(property="linkResolutionThreads", defaultValue="8")
+  private int linkResolutionThreads;
+
+  @Parameter(property="linkCacheTtl", defaultValue="24")
+  private int linkCacheTtl;
+
+  @Parameter(property="missingLinkTtl", defaultValue="24")
+  private int missingLinkTtl;
+
+  @Parameter(property="moduleThreads", defaultValue="1")
+  private int moduleThreads;
+
+  @Parameter(property="pipelineDepth", defaultValue="2")
+  private int pipelineDepth;
+
+  @Parameter(property="incremental", defaultValue="false")
+  private boolean incremental;
+
+  @Parameter(property="pruneOfflineLinks", defaultValue="false")
+  private boolean pruneOfflineLinks;
+
+  @Parameter(property="inProcess", defaultValue="false")
+  private boolean inProcess;
+
+  @Parameter(property="markerIndex", defaultValue="false")
+  private boolean markerIndex;
+
+  @Parameter(property="linkBundle")
+  private File linkBundle;
+
+  @Parameter(property="workers", defaultValue="0")
+  private int workers;
+
+  @Parameter(property="workerHeap")
+  private String workerHeap;
+
+  private Metrics metrics;
+
   @Override
   public boolean isAggregator() {
     return "pom".equalsIgnoreCase(project.getPackaging());
@@ -84,7 +123,65 @@ public class JavadocMojo extends JavadocReport implements DefaultMojo {
   }
 
   @Override
-  protected Map<String,Collection<String>> getSourcePaths() throws MavenReportException {
+  public int getLinkResolutionThreads() {
+    return linkResolutionThreads;
+  }
+
+  @Override
+  public int getLinkCacheTtl() {
+    return linkCacheTtl;
+  }
+
+  @Override
+  public int getMissingLinkTtl() {
+    return missingLinkTtl;
+  }
+
+  @Override
+  public int getModuleThreads() {
+    return moduleThreads;
+  }
+
+  @Override
+  public int getPipelineDepth() {
+    return pipelineDepth;
+  }
+
+  @Override
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  @Override
+  public boolean isPruneOfflineLinks() {
+    return pruneOfflineLinks;
+  }
+
+  @Override
+  public boolean isMarkerIndex() {
+    return markerIndex;
+  }
+
+  @Override
+  public File getLinkBundle() {
+    return linkBundle;
+  }
+
+  @Override
+  public Metrics getMetrics() {
+    if (metrics == null)
+      metrics = new Metrics(project.getId(), "javadoc");
+
+    return metrics;
+  }
+
+  @Override
+  public String getOutputDirectory() {
+    return super.getOutputDirectory();
+  }
+
+  @Override
+  public Map<String,Collection<String>> getSourcePaths() throws MavenReportException {
     return filterSourcePaths(super.getSourcePaths(), project);
   }
 
@@ -93,9 +190,26 @@ public class JavadocMojo extends JavadocReport implements DefaultMojo {
     return UnpackDependencies.execute(this, _settings, project, session, _reactorProjects, _archiverManager, _artifactResolver, _dependencyResolver, _repositoryManager, _projectBuilder, _artifactHandlerManager);
   }
 
+  @Override
+  public void onComplete() {
+    UnpackDependencies.report(getLog(), _settings);
+    WorkerPool.shutdown(getLog());
+    WarmupQueue.shutdown(getLog());
+    reportMetrics(session.getTopLevelProject() != null ? session.getTopLevelProject() : project);
+  }
+
   @Override
   public void executeSuperReport(final Locale unusedLocale) throws MavenReportException {
-    super.executeReport(unusedLocale);
+    if (workers > 0)
+      JavadocRunner.executeReport(this, WorkerPool.get(workers, workerHeap), getLog());
+    else if (inProcess)
+      JavadocRunner.executeReport(this, null, getLog());
+    else
+      super.executeReport(unusedLocale);
+  }
+
+  @Override
+  public void packageReport(final boolean upToDate) {
   }
 
   @Override
@@ -0,0 +1,430 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.reporting.MavenReportException;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Runs the javadoc tool for an {@link AbstractJavadocMojo} in the process of Maven via {@link DocumentationTool}, or in a warm
+ * worker of a {@link WorkerPool}. The arguments are built by the same steps as in
+ * {@link AbstractJavadocMojo#executeReport(java.util.Locale)}, and the tool is forked as before if the arguments include JVM options
+ * ({@code -J}), or if the configured javadoc executable is not that of the running JDK.
+ */
+final class JavadocRunner {
+  private static final Pattern notice = Pattern.compile("^(Loading source files? |Constructing Javadoc information|Building (tree|index) for |Generating |Standard Doclet version |Copying ).*");
+  // The javadoc tool of JDK 8 keeps static state, and therefore cannot run concurrently in the same process
+  private static final Object legacyLock = System.getProperty("java.specification.version").startsWith("1.") ? new Object() : null;
+
+  private static final String supportedVersion = "3.0.1";
+  private static final Map<String,Method> methods = new HashMap<>();
+  // The reason for which the maven-javadoc-plugin on the class path is not supported, or null if it is supported
+  static final String unsupported;
+
+  static {
+    // The internals of AbstractJavadocMojo that are used to build the arguments, which are resolved here so that an unsupported
+    // version of the maven-javadoc-plugin fails before the first run, rather than with an arbitrary error in the middle of it
+    final Object[][] signatures = {
+      {"getPackageNames", Collection.class, List.class},
+      {"getFilesWithUnnamedPackages", Collection.class, List.class},
+      {"getJavadocExecutable"},
+      {"setFJavadocVersion", File.class},
+      {"copyAllResources", File.class},
+      {"addMemoryArg", Commandline.class, String.class, String.class},
+      {"addProxyArg", Commandline.class},
+      {"addJavadocOptions", File.class, List.class, Map.class},
+      {"addStandardDocletOptions", File.class, List.class},
+      {"addCommandLineOptions", Commandline.class, List.class, File.class},
+      {"addCommandLinePackages", Commandline.class, File.class, List.class},
+      {"addCommandLineArgFile", Commandline.class, File.class, List.class},
+      {"executeJavadocCommandLine", Commandline.class, File.class},
+      {"fixFrameInjectionBug", File.class, String.class},
+      {"getDocencoding"}
+    };
+
+    final String[] fields = {"debug", "maxmemory", "minmemory", "additionalJOption", "additionalJOptions", "doclet", "sourceFileIncludes", "sourceFileExcludes", "subpackages", "applyJavadocSecurityFix"};
+    final List<String> missing = new ArrayList<>();
+    for (final Object[] signature : signatures) { // [A]
+      final Class<?>[] types = new Class<?>[signature.length - 1];
+      for (int i = 0; i < types.length; ++i) // [A]
+        types[i] = (Class<?>)signature[i + 1];
+
+      try {
+        final Method method = AbstractJavadocMojo.class.getDeclaredMethod((String)signature[0], types);
+        method.setAccessible(true);
+        methods.put(method.getName(), method);
+      }
+      catch (final NoSuchMethodException e) {
+        missing.add(signature[0] + "()");
+      }
+    }
+
+    for (final String field : fields) { // [A]
+      try {
+        AbstractJavadocMojo.class.getDeclaredField(field);
+      }
+      catch (final NoSuchFieldException e) {
+        missing.add(field);
+      }
+    }
+
+    unsupported = missing.isEmpty() ? null : "In-process javadoc (inProcess or workers) supports maven-javadoc-plugin " + supportedVersion + ", but maven-javadoc-plugin " + getPluginVersion() + " does not declare AbstractJavadocMojo." + String.join(", AbstractJavadocMojo.", missing);
+  }
+
+  /**
+   * Returns the version of the maven-javadoc-plugin on the class path, from the {@code pom.properties} of its jar.
+   *
+   * @return The version of the maven-javadoc-plugin on the class path, or {@code "(unknown)"} if it cannot be determined.
+   */
+  static String getPluginVersion() {
+    try (final InputStream in = AbstractJavadocMojo.class.getResourceAsStream("/META-INF/maven/org.apache.maven.plugins/maven-javadoc-plugin/pom.properties")) {
+      if (in != null) {
+        final Properties properties = new Properties();
+        properties.load(in);
+        final String version = properties.getProperty("version");
+        if (version != null)
+          return version;
+      }
+    }
+    catch (final IOException e) {
+    }
+
+    return "(unknown)";
+  }
+
+  private static Object invoke(final AbstractJavadocMojo mojo, final String name, final Object ... args) throws IOException, MavenReportException {
+    try {
+      return methods.get(name).invoke(mojo, args);
+    }
+    catch (final InvocationTargetException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof MavenReportException)
+        throw (MavenReportException)cause;
+
+      if (cause instanceof IOException)
+        throw (IOException)cause;
+
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+
+      throw new IllegalStateException(cause);
+    }
+    catch (final IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean isRunningJdk(final File javadocExecutable) throws IOException {
+    final File javaHome = new File(System.getProperty("java.home"));
+    final File bin = javadocExecutable.getCanonicalFile().getParentFile();
+    return bin.equals(new File(javaHome, "bin").getCanonicalFile()) || javaHome.getParentFile() != null && bin.equals(new File(javaHome.getParentFile(), "bin").getCanonicalFile());
+  }
+
+  /**
+   * Returns the reason for which the specified command line has to be forked, or {@code null} if it can be run in process.
+   */
+  private static String getForkReason(final Commandline cmd, final File javadocExecutable, final DocumentationTool tool) throws IOException {
+    if (tool == null)
+      return "no system documentation tool is available";
+
+    if (!isRunningJdk(javadocExecutable))
+      return javadocExecutable + " is not the javadoc tool of the running JDK";
+
+    for (final String arg : cmd.getArguments()) // [A]
+      if (arg.startsWith("-J"))
+        return "JVM option " + arg.substring(2) + " requires a separate process";
+
+    return null;
+  }
+
+  /**
+   * Generates the javadocs of the specified mojo, with the javadoc tool in the specified {@link WorkerPool}, or in the process of
+   * Maven if {@code pool} is {@code null}, if possible.
+   *
+   * @param mojo The {@link AbstractJavadocMojo}.
+   * @param pool The {@link WorkerPool}, or {@code null} to run the tool in the process of Maven.
+   * @param log The {@link Log}.
+   * @throws MavenReportException If the javadocs could not be generated, or if the version of the maven-javadoc-plugin on the class path
+   *           is not supported.
+   */
+  @SuppressWarnings("unchecked")
+  static void executeReport(final AbstractJavadocMojo mojo, final WorkerPool pool, final Log log) throws MavenReportException {
+    if (mojo.skip) {
+      log.info("Skipping javadoc generation");
+      return;
+    }
+
+    if (mojo.isAggregator() && !mojo.project.isExecutionRoot())
+      return;
+
+    if (unsupported != null)
+      throw new MavenReportException(unsupported);
+
+    try {
+      final boolean debug = log.isDebugEnabled() || (Boolean)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "debug");
+      if (debug)
+        MojoUtil.setField(AbstractJavadocMojo.class, mojo, "debug", true);
+
+      try {
+        mojo.buildJavadocOptions();
+      }
+      catch (final IOException e) {
+        throw new MavenReportException("Failed to generate javadoc options file: " + e.getMessage(), e);
+      }
+
+      final Map<String,Collection<String>> sourcePaths = mojo.getSourcePaths();
+      final Collection<String> collectedSourcePaths = mojo.collect(sourcePaths.values());
+      final List<String> files = mojo.getFiles(collectedSourcePaths);
+      if (!mojo.canGenerateReport(files))
+        return;
+
+      final List<String> packageNames = (List<String>)invoke(mojo, "getPackageNames", collectedSourcePaths, files);
+      final List<String> filesWithUnnamedPackages = (List<String>)invoke(mojo, "getFilesWithUnnamedPackages", collectedSourcePaths, files);
+
+      final String javadocExecutable;
+      try {
+        javadocExecutable = (String)invoke(mojo, "getJavadocExecutable");
+      }
+      catch (final IOException e) {
+        throw new MavenReportException("Unable to find javadoc command: " + e.getMessage(), e);
+      }
+
+      invoke(mojo, "setFJavadocVersion", new File(javadocExecutable));
+
+      final File outputDirectory = new File(mojo.getOutputDirectory());
+      if (outputDirectory.exists() && !outputDirectory.isDirectory())
+        throw new MavenReportException("IOException: " + outputDirectory + " is not a directory.");
+
+      if (outputDirectory.exists() && !outputDirectory.canWrite())
+        throw new MavenReportException("IOException: " + outputDirectory + " is not writable.");
+
+      outputDirectory.mkdirs();
+      invoke(mojo, "copyAllResources", outputDirectory);
+
+      final Commandline cmd = new Commandline();
+      cmd.getShell().setQuotedArgumentsEnabled(false);
+      cmd.setWorkingDirectory(outputDirectory.getAbsolutePath());
+      cmd.setExecutable(javadocExecutable);
+
+      invoke(mojo, "addMemoryArg", cmd, "-Xmx", MojoUtil.getField(AbstractJavadocMojo.class, mojo, "maxmemory"));
+      invoke(mojo, "addMemoryArg", cmd, "-Xms", MojoUtil.getField(AbstractJavadocMojo.class, mojo, "minmemory"));
+      invoke(mojo, "addProxyArg", cmd);
+      final String additionalJOption = (String)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "additionalJOption");
+      if (additionalJOption != null && additionalJOption.length() > 0)
+        cmd.createArg().setValue(additionalJOption);
+
+      final String[] additionalJOptions = (String[])MojoUtil.getField(AbstractJavadocMojo.class, mojo, "additionalJOptions");
+      if (additionalJOptions != null)
+        for (final String additionalJOption$ : additionalJOptions) // [A]
+          cmd.createArg().setValue(additionalJOption$);
+
+      final List<String> arguments = new ArrayList<>();
+      invoke(mojo, "addJavadocOptions", outputDirectory, arguments, sourcePaths);
+      final String doclet = (String)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "doclet");
+      if (doclet == null || doclet.length() == 0 || mojo.useStandardDocletOptions)
+        invoke(mojo, "addStandardDocletOptions", outputDirectory, arguments);
+
+      if (arguments.size() > 0)
+        invoke(mojo, "addCommandLineOptions", cmd, arguments, outputDirectory);
+
+      final List<String> sourceFileIncludes = (List<String>)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "sourceFileIncludes");
+      final List<String> sourceFileExcludes = (List<String>)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "sourceFileExcludes");
+      final String subpackages = (String)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "subpackages");
+      boolean includesExcludesActive = sourceFileIncludes != null && !sourceFileIncludes.isEmpty() || sourceFileExcludes != null && !sourceFileExcludes.isEmpty();
+      if (includesExcludesActive && subpackages != null && subpackages.length() > 0) {
+        log.warn("sourceFileIncludes and sourceFileExcludes have no effect when subpackages are specified!");
+        includesExcludesActive = false;
+      }
+
+      if (!packageNames.isEmpty() && !includesExcludesActive) {
+        invoke(mojo, "addCommandLinePackages", cmd, outputDirectory, packageNames);
+        if (!filesWithUnnamedPackages.isEmpty())
+          invoke(mojo, "addCommandLineArgFile", cmd, outputDirectory, filesWithUnnamedPackages);
+      }
+      else if (!files.isEmpty()) {
+        invoke(mojo, "addCommandLineArgFile", cmd, outputDirectory, files);
+      }
+
+      final DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+      final String forkReason = getForkReason(cmd, new File(javadocExecutable), tool);
+      if (forkReason != null) {
+        log.info("Forking javadoc: " + forkReason);
+        invoke(mojo, "executeJavadocCommandLine", cmd, outputDirectory);
+      }
+      else if (pool != null) {
+        final String[] args = getArguments(cmd);
+        if (log.isDebugEnabled())
+          log.debug("javadoc (worker) " + String.join(" ", args));
+
+        final WorkerPool.Result result = pool.run(args);
+        final String[] output = splitNotices(result.getOut(), result.getErr());
+        handleOutput(mojo, result.getExitCode(), output[0], output[1], outputDirectory, log);
+      }
+      else {
+        run(mojo, tool, cmd, outputDirectory, log);
+      }
+
+      if (!debug) {
+        for (final String arg : cmd.getArguments()) { // [A]
+          if (arg.trim().startsWith("@"))
+            new File(outputDirectory, arg.trim().substring(1)).delete();
+        }
+
+        new File(outputDirectory, AbstractJavadocMojo.DEBUG_JAVADOC_SCRIPT_NAME).delete();
+      }
+
+      if ((Boolean)MojoUtil.getField(AbstractJavadocMojo.class, mojo, "applyJavadocSecurityFix")) {
+        try {
+          final int patched = (Integer)invoke(mojo, "fixFrameInjectionBug", outputDirectory, invoke(mojo, "getDocencoding"));
+          if (patched > 0)
+            log.info(String.format("Fixed Javadoc frame injection vulnerability (CVE-2013-1571) in %d files.", patched));
+        }
+        catch (final IOException e) {
+          throw new MavenReportException("Failed to patch javadocs vulnerability: " + e.getMessage(), e);
+        }
+      }
+      else {
+        log.info("applying javadoc security fix has been disabled");
+      }
+    }
+    catch (final IOException e) {
+      throw new MavenReportException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the arguments of the specified command line, with the {@code @file} arguments resolved against its working directory,
+   * because the tool is run in the working directory of Maven rather than in that of the command line.
+   *
+   * @param cmd The {@link Commandline}.
+   * @return The arguments of the specified command line.
+   */
+  static String[] getArguments(final Commandline cmd) {
+    final String[] args = cmd.getArguments();
+    for (int i = 0; i < args.length; ++i) { // [A]
+      final String arg = args[i].trim();
+      if (arg.startsWith("@") && !new File(arg.substring(1)).isAbsolute())
+        args[i] = "@" + new File(cmd.getWorkingDirectory(), arg.substring(1)).getAbsolutePath();
+    }
+
+    return args;
+  }
+
+  /**
+   * Handles the output of a javadoc run in the same way as {@code AbstractJavadocMojo#executeJavadocCommandLine}: the output is
+   * logged, and the errors and warnings are logged as warnings, or fail the run if the exit code is not {@code 0}, or if
+   * {@link AbstractJavadocMojo#failOnWarnings} is set.
+   *
+   * @param mojo The {@link AbstractJavadocMojo}.
+   * @param exitCode The exit code of the run.
+   * @param out The standard output of the run.
+   * @param err The diagnostic output of the run.
+   * @param outputDirectory The output directory.
+   * @param log The {@link Log}.
+   * @throws MavenReportException If the run has failed.
+   */
+  static void handleOutput(final AbstractJavadocMojo mojo, final int exitCode, final String out, final String err, final File outputDirectory, final Log log) throws MavenReportException {
+    final String output = out.trim().length() == 0 ? null : "\n" + out.trim();
+    if (exitCode != 0) {
+      if (output != null)
+        log.info(output);
+
+      final StringBuilder message = new StringBuilder("\nExit code: ").append(exitCode);
+      if (err.trim().length() > 0)
+        message.append(" - ").append(err.trim());
+
+      message.append('\n').append("Refer to the generated Javadoc files in '").append(outputDirectory).append("' dir.\n");
+      throw new MavenReportException(message.toString());
+    }
+
+    if (output != null)
+      log.info(output);
+
+    if (err.trim().length() > 0) {
+      if (log.isWarnEnabled()) {
+        log.warn("Javadoc Warnings");
+        for (final String line : err.split("\r?\n")) // [A]
+          if (line.trim().length() > 0)
+            log.warn(line.trim());
+      }
+
+      if (mojo.failOnWarnings)
+        throw new MavenReportException("Project contains Javadoc Warnings");
+    }
+  }
+
+  private static void run(final AbstractJavadocMojo mojo, final DocumentationTool tool, final Commandline cmd, final File outputDirectory, final Log log) throws MavenReportException {
+    final String[] args = getArguments(cmd);
+    if (log.isDebugEnabled())
+      log.debug("javadoc (in process) " + String.join(" ", args));
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    final int exitCode;
+    if (legacyLock == null) {
+      exitCode = tool.run(null, out, err, args);
+    }
+    else {
+      synchronized (legacyLock) {
+        exitCode = tool.run(null, out, err, args);
+      }
+    }
+
+    final String[] output = splitNotices(new String(out.toByteArray(), JavadocWorker.TOOL_CHARSET), new String(err.toByteArray(), JavadocWorker.TOOL_CHARSET));
+    handleOutput(mojo, exitCode, output[0], output[1], outputDirectory, log);
+  }
+
+  /**
+   * Separates the progress notices of the javadoc tool from its diagnostics. A forked tool writes its notices to standard output,
+   * but the tool in process writes them to its diagnostic stream.
+   *
+   * @param out The standard output of the run.
+   * @param err The diagnostic output of the run.
+   * @return An array of the notices (including {@code out}) and the diagnostics of the run.
+   */
+  static String[] splitNotices(final String out, final String err) {
+    final StringBuilder notices = new StringBuilder(out);
+    final StringBuilder diagnostics = new StringBuilder();
+    for (final String line : err.split("\r?\n")) { // [A]
+      if (line.length() > 0)
+        (notice.matcher(line).matches() ? notices : diagnostics).append(line).append('\n');
+    }
+
+    return new String[] {notices.toString(), diagnostics.toString()};
+  }
+
+  private JavadocRunner() {
+  }
+}
\ No newline at end of file
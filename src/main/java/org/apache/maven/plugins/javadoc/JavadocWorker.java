@@ -0,0 +1,114 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+
+/**
+ * The main class of a javadoc worker JVM of a {@link WorkerPool}. The worker reads jobs from its standard input, runs each with the
+ * {@link DocumentationTool} of its JDK, and writes the result to its standard output. Output of the tool or its doclet that bypasses
+ * the streams of the job is sent to the standard error of the worker, so that it cannot corrupt the protocol. The worker exits at the
+ * end of its standard input.
+ * <p>
+ * This class depends only on the JDK, because it is run with the plugin jar as its sole classpath entry.
+ * <ul>
+ * <li>Ready: {@code int} {@code 0}, or {@code -1} followed by a message if no documentation tool is available.</li>
+ * <li>Job: {@code int} number of arguments, followed by each argument.</li>
+ * <li>Result: {@code int} exit code, {@code long} nanoseconds of the run, standard output, diagnostic output.</li>
+ * </ul>
+ * Strings are written as an {@code int} length followed by UTF-8 bytes.
+ */
+public final class JavadocWorker {
+  /** The charset of the output of the tool, which writes its streams with a {@code PrintWriter} of the default charset. */
+  static final Charset TOOL_CHARSET = Charset.defaultCharset();
+
+  static String readString(final DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeString(final DataOutputStream out, final String string) throws IOException {
+    final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  public static void main(final String[] args) throws IOException {
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    System.setOut(System.err);
+    final DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+
+    final DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+    if (tool == null) {
+      out.writeInt(-1);
+      writeString(out, "No system documentation tool is available in " + System.getProperty("java.home"));
+      out.flush();
+      return;
+    }
+
+    out.writeInt(0);
+    out.flush();
+    while (true) {
+      final String[] jobArgs;
+      try {
+        jobArgs = new String[in.readInt()];
+      }
+      catch (final EOFException e) {
+        return;
+      }
+
+      for (int i = 0; i < jobArgs.length; ++i) // [A]
+        jobArgs[i] = readString(in);
+
+      final ByteArrayOutputStream jobOut = new ByteArrayOutputStream();
+      final ByteArrayOutputStream jobErr = new ByteArrayOutputStream();
+      final long start = System.nanoTime();
+      int exitCode;
+      try {
+        exitCode = tool.run(null, jobOut, jobErr, jobArgs);
+      }
+      catch (final RuntimeException | Error e) {
+        e.printStackTrace(new PrintStream(jobErr, true, TOOL_CHARSET.name()));
+        exitCode = -1;
+      }
+
+      out.writeInt(exitCode);
+      out.writeLong(System.nanoTime() - start);
+      writeString(out, new String(jobOut.toByteArray(), TOOL_CHARSET));
+      writeString(out, new String(jobErr.toByteArray(), TOOL_CHARSET));
+      out.flush();
+    }
+  }
+
+  private JavadocWorker() {
+  }
+}
\ No newline at end of file
@@ -0,0 +1,532 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A cache of resolved dependency links that is persisted in the local repository, so that the links resolved in one build can be
+ * served to the next without probing the network. Stale entries are served as well, and are revalidated in the background. The
+ * cache also records the artifacts that were found to be missing on javadoc.io, so that they are not probed again until the record
+ * expires.
+ */
+final class LinkCache {
+  private static final Map<File,LinkCache> instances = new ConcurrentHashMap<>();
+  private static final String LINKS = "links.properties";
+  private static final String MISSING = "missing.properties";
+  private static final String[] bundleFileNames = {"package-list", "element-list"};
+  private static final ExecutorService refresher = Executors.newSingleThreadExecutor((final Runnable r) -> {
+    final Thread thread = new Thread(r, "javadocio-link-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  static final class Entry {
+    private final String url;
+    private final String packageListUrl;
+    private final String validator;
+    private final long fetched;
+
+    /**
+     * Creates a new {@link Entry}.
+     *
+     * @param url The doc URL of the artifact.
+     * @param packageListUrl The URL from which the package-list was downloaded, or {@code null} if it was unpacked from the javadoc
+     *          jar of the artifact.
+     * @param validator The {@code ETag} or {@code Last-Modified} value of the package-list, or {@code null} if none was provided.
+     * @param fetched The time at which the package-list was fetched.
+     */
+    Entry(final String url, final String packageListUrl, final String validator, final long fetched) {
+      this.url = url;
+      this.packageListUrl = packageListUrl;
+      this.validator = validator;
+      this.fetched = fetched;
+    }
+
+    String getUrl() {
+      return url;
+    }
+
+    String getPackageListUrl() {
+      return packageListUrl;
+    }
+
+    String getValidator() {
+      return validator;
+    }
+
+    long getFetched() {
+      return fetched;
+    }
+
+    private static Entry decode(final String value) {
+      final String[] parts = value.split("\\|", 4);
+      if (parts.length != 4)
+        return null;
+
+      try {
+        return new Entry(parts[1], parts[2].length() == 0 ? null : parts[2], parts[3].length() == 0 ? null : parts[3], Long.parseLong(parts[0]));
+      }
+      catch (final NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private String encode() {
+      return fetched + "|" + url + "|" + (packageListUrl != null ? packageListUrl : "") + "|" + (validator != null ? validator : "");
+    }
+  }
+
+  /**
+   * Returns the {@link LinkCache} of the specified local repository.
+   *
+   * @param localRepository The local repository directory.
+   * @return The {@link LinkCache} of the specified local repository.
+   */
+  static LinkCache of(final File localRepository) {
+    return instances.computeIfAbsent(localRepository, LinkCache::new);
+  }
+
+  static String getKey(final Artifact artifact) {
+    return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getBaseVersion();
+  }
+
+  private final File localRepository;
+  private final File linksFile;
+  private final File missingFile;
+  private final File lockFile;
+  private final Map<String,Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String,Long> missing = new ConcurrentHashMap<>();
+  private final Set<String> found = ConcurrentHashMap.newKeySet();
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger missingHits = new AtomicInteger();
+  private final AtomicInteger missingMisses = new AtomicInteger();
+  private volatile boolean dirty;
+
+  private LinkCache(final File localRepository) {
+    this.localRepository = localRepository;
+    this.linksFile = new File(localRepository, ".javadocio/links.properties");
+    this.missingFile = new File(localRepository, ".javadocio/missing.properties");
+    this.lockFile = new File(localRepository, ".javadocio/cache.lock");
+    readEntries(entries);
+    readMissing(missing);
+  }
+
+  private static Properties load(final File file) {
+    final Properties properties = new Properties();
+    if (file.exists()) {
+      try (final InputStream in = new FileInputStream(file)) {
+        properties.load(in);
+      }
+      catch (final IOException e) {
+        properties.clear();
+      }
+    }
+
+    return properties;
+  }
+
+  private static void store(final File file, final Properties properties) throws IOException {
+    file.getParentFile().mkdirs();
+    final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    try {
+      try (final OutputStream out = new FileOutputStream(tempFile)) {
+        properties.store(out, null);
+      }
+
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      tempFile.delete();
+    }
+  }
+
+  private void readEntries(final Map<String,Entry> entries) {
+    final Properties properties = load(linksFile);
+    for (final String key : properties.stringPropertyNames()) { // [S]
+      final Entry entry = Entry.decode(properties.getProperty(key));
+      if (entry != null)
+        entries.put(key, entry);
+    }
+  }
+
+  private void readMissing(final Map<String,Long> missing) {
+    final Properties properties = load(missingFile);
+    for (final String key : properties.stringPropertyNames()) { // [S]
+      try {
+        missing.put(key, Long.valueOf(properties.getProperty(key)));
+      }
+      catch (final NumberFormatException e) {
+      }
+    }
+  }
+
+  Entry get(final String key) {
+    return entries.get(key);
+  }
+
+  void put(final String key, final Entry entry) {
+    entries.put(key, entry);
+    dirty = true;
+  }
+
+  /**
+   * Returns whether the specified key was recorded as missing on javadoc.io less than {@code ttl} milliseconds ago, and counts the
+   * result as a hit or miss of the negative cache.
+   *
+   * @param key The key.
+   * @param ttl The time to live of a missing record, in milliseconds.
+   * @return Whether the specified key was recorded as missing on javadoc.io less than {@code ttl} milliseconds ago.
+   */
+  boolean isMissing(final String key, final long ttl) {
+    final Long time = missing.get(key);
+    if (time != null && System.currentTimeMillis() - time < ttl) {
+      missingHits.incrementAndGet();
+      return true;
+    }
+
+    missingMisses.incrementAndGet();
+    return false;
+  }
+
+  void setMissing(final String key, final boolean isMissing) {
+    if (isMissing) {
+      missing.put(key, System.currentTimeMillis());
+      found.remove(key);
+    }
+    else if (missing.remove(key) != null) {
+      found.add(key);
+    }
+    else {
+      return;
+    }
+
+    dirty = true;
+  }
+
+  /**
+   * Logs the number of hits and misses of the negative cache since the last call to this method, and resets the counts.
+   *
+   * @param log The {@link Log}.
+   */
+  void reportMissing(final Log log) {
+    final int hits = missingHits.getAndSet(0);
+    final int misses = missingMisses.getAndSet(0);
+    if (hits + misses > 0)
+      log.info("javadoc.io probes: " + hits + " skipped for artifacts known to be missing, " + misses + " performed");
+  }
+
+  /**
+   * Revalidates the package-list of the specified {@link Entry} in the background, if the entry is older than {@code ttl}, and the
+   * package-list was downloaded rather than unpacked. The entry continues to be served while it is being revalidated.
+   *
+   * @param key The key of the entry.
+   * @param entry The entry.
+   * @param packageListFile The local package-list file of the entry.
+   * @param ttl The time to live of the entry, in milliseconds.
+   * @param log The {@link Log}.
+   */
+  void refreshIfStale(final String key, final Entry entry, final File packageListFile, final long ttl, final Log log) {
+    if (entry.getPackageListUrl() == null || System.currentTimeMillis() - entry.getFetched() < ttl || !refreshing.add(key))
+      return;
+
+    refresher.execute(() -> {
+      try {
+        final MojoUtil.Download download = MojoUtil.downloadFile(entry.getPackageListUrl(), packageListFile, entry.getValidator());
+        if (download.getResponseCode() == 200 || download.getResponseCode() == 304) {
+          put(key, new Entry(entry.getUrl(), entry.getPackageListUrl(), download.getValidator() != null ? download.getValidator() : entry.getValidator(), System.currentTimeMillis()));
+          save();
+        }
+      }
+      catch (final IOException e) {
+        log.debug("Unable to revalidate " + entry.getPackageListUrl() + ": " + e.getMessage());
+      }
+      finally {
+        refreshing.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Revalidates the doc URL of the specified {@link Entry} with a {@code HEAD} request in the background, if the entry is older than
+   * {@code ttl}. The entry continues to be served while it is being revalidated, and its fetch time is renewed if the docs still
+   * exist, unless the entry has been replaced in the meantime.
+   *
+   * @param key The key of the entry.
+   * @param entry The entry.
+   * @param ttl The time to live of the entry, in milliseconds.
+   * @param log The {@link Log}.
+   */
+  void reprobeIfStale(final String key, final Entry entry, final long ttl, final Log log) {
+    if (System.currentTimeMillis() - entry.getFetched() < ttl || !refreshing.add(key))
+      return;
+
+    refresher.execute(() -> {
+      try {
+        if (MojoUtil.head(entry.getUrl() + "index.html") < 300 && entries.replace(key, entry, new Entry(entry.getUrl(), entry.getPackageListUrl(), entry.getValidator(), System.currentTimeMillis()))) {
+          dirty = true;
+          save();
+        }
+      }
+      catch (final IOException e) {
+        log.debug("Unable to revalidate " + entry.getUrl() + ": " + e.getMessage());
+      }
+      finally {
+        refreshing.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Writes the entries of this cache to its files, merged with the entries that have been written by concurrent builds in the
+   * meantime. The read, merge and replacement of the files is done under an exclusive lock on a sibling lock file, so that
+   * concurrent builds do not lose each other's updates, and the files are replaced atomically, so that a concurrent reader never
+   * sees a partially written file.
+   *
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized void save() throws IOException {
+    if (!dirty)
+      return;
+
+    dirty = false;
+    lockFile.getParentFile().mkdirs();
+    try (final FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+      final FileLock lock = channel.lock();
+      try {
+        merge();
+      }
+      finally {
+        lock.release();
+      }
+    }
+  }
+
+  private void merge() throws IOException {
+    final Map<String,Entry> mergedEntries = new HashMap<>();
+    readEntries(mergedEntries);
+    for (final Map.Entry<String,Entry> entry : entries.entrySet()) { // [S]
+      final Entry existing = mergedEntries.get(entry.getKey());
+      if (existing == null || existing.getFetched() <= entry.getValue().getFetched())
+        mergedEntries.put(entry.getKey(), entry.getValue());
+    }
+
+    final Properties links = new Properties();
+    for (final Map.Entry<String,Entry> entry : mergedEntries.entrySet()) // [S]
+      links.setProperty(entry.getKey(), entry.getValue().encode());
+
+    store(linksFile, links);
+
+    final Map<String,Long> mergedMissing = new HashMap<>();
+    readMissing(mergedMissing);
+    mergedMissing.putAll(missing);
+    mergedMissing.keySet().removeAll(found);
+
+    final Properties missing = new Properties();
+    for (final Map.Entry<String,Long> entry : mergedMissing.entrySet()) // [S]
+      missing.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+
+    store(missingFile, missing);
+  }
+
+  /**
+   * Returns the path of the directory of the package-lists of the specified key, relative to the local repository, which is the
+   * directory to which {@link UnpackDependencies} unpacks or downloads them.
+   *
+   * @param key The key.
+   * @return The path of the directory of the package-lists of the specified key, or {@code null} if the key is malformed.
+   */
+  static String getPackageListDir(final String key) {
+    final String[] parts = key.split(":");
+    return parts.length != 3 ? null : parts[0].replace('.', '/') + "/" + parts[1] + "/" + parts[2] + "/javadoc/";
+  }
+
+  private static void putEntry(final ZipOutputStream out, final String name, final Properties properties) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    properties.store(out, null);
+    out.closeEntry();
+  }
+
+  /**
+   * Writes the entries and missing records of this cache, and the {@code package-list} and {@code element-list} files of the
+   * entries, to the specified bundle, so that the cache of another local repository can be seeded from it with
+   * {@link #importBundle(File)}.
+   *
+   * @param bundle The bundle file.
+   * @return The number of entries that were written to the bundle.
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized int exportBundle(final File bundle) throws IOException {
+    save();
+    final Map<String,Entry> entries = new HashMap<>();
+    readEntries(entries);
+    final Map<String,Long> missing = new HashMap<>();
+    readMissing(missing);
+
+    if (bundle.getParentFile() != null)
+      bundle.getParentFile().mkdirs();
+
+    final Properties links = new Properties();
+    final File tempFile = File.createTempFile(bundle.getName(), ".tmp", bundle.getAbsoluteFile().getParentFile());
+    try {
+      try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tempFile))) {
+        for (final Map.Entry<String,Entry> entry : entries.entrySet()) { // [S]
+          final String dir = getPackageListDir(entry.getKey());
+          if (dir == null)
+            continue;
+
+          int files = 0;
+          for (final String name : bundleFileNames) { // [A]
+            final File file = new File(localRepository, dir + name);
+            if (file.isFile()) {
+              out.putNextEntry(new ZipEntry(dir + name));
+              Files.copy(file.toPath(), out);
+              out.closeEntry();
+              ++files;
+            }
+          }
+
+          // An entry without a package-list is not of use to the importing cache
+          if (files > 0)
+            links.setProperty(entry.getKey(), entry.getValue().encode());
+        }
+
+        putEntry(out, LINKS, links);
+        final Properties missingProperties = new Properties();
+        for (final Map.Entry<String,Long> entry : missing.entrySet()) // [S]
+          missingProperties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+
+        putEntry(out, MISSING, missingProperties);
+      }
+
+      Files.move(tempFile.toPath(), bundle.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      tempFile.delete();
+    }
+
+    return links.size();
+  }
+
+  /**
+   * Seeds this cache from the specified bundle that was written by {@link #exportBundle(File)}. Entries of the bundle replace the
+   * entries of this cache only if they were fetched later, and {@code package-list} and {@code element-list} files of the bundle are
+   * extracted to the local repository only if they do not exist. The cache is saved once the bundle has been imported.
+   *
+   * @param bundle The bundle file.
+   * @return The number of entries that were imported from the bundle.
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized int importBundle(final File bundle) throws IOException {
+    int imported = 0;
+    try (final ZipFile zipFile = new ZipFile(bundle)) {
+      final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+      while (zipEntries.hasMoreElements()) { // [I]
+        final ZipEntry zipEntry = zipEntries.nextElement();
+        final String name = zipEntry.getName();
+        if (LINKS.equals(name)) {
+          final Properties properties = new Properties();
+          try (final InputStream in = zipFile.getInputStream(zipEntry)) {
+            properties.load(in);
+          }
+
+          for (final String key : properties.stringPropertyNames()) { // [S]
+            final Entry entry = Entry.decode(properties.getProperty(key));
+            final Entry existing = entries.get(key);
+            if (entry != null && (existing == null || existing.getFetched() < entry.getFetched())) {
+              put(key, entry);
+              ++imported;
+            }
+          }
+        }
+        else if (MISSING.equals(name)) {
+          final Properties properties = new Properties();
+          try (final InputStream in = zipFile.getInputStream(zipEntry)) {
+            properties.load(in);
+          }
+
+          for (final String key : properties.stringPropertyNames()) { // [S]
+            try {
+              if (!entries.containsKey(key) && missing.putIfAbsent(key, Long.valueOf(properties.getProperty(key))) == null)
+                dirty = true;
+            }
+            catch (final NumberFormatException e) {
+            }
+          }
+        }
+        else if (isBundleFile(name)) {
+          final File file = new File(localRepository, name);
+          if (!file.exists()) {
+            file.getParentFile().mkdirs();
+            final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            try {
+              try (final InputStream in = zipFile.getInputStream(zipEntry)) {
+                Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+              }
+
+              // A file that was extracted concurrently by another process has the same content, and is therefore replaced
+              Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+              tempFile.delete();
+            }
+          }
+        }
+      }
+    }
+
+    save();
+    return imported;
+  }
+
+  private static boolean isBundleFile(final String name) {
+    // Only the package-lists of javadoc directories are extracted, so that a bundle cannot write elsewhere in the local repository
+    if (name.startsWith("/") || name.contains("..") || name.contains("\\"))
+      return false;
+
+    for (final String fileName : bundleFileNames) // [A]
+      if (name.endsWith("/javadoc/" + fileName))
+        return true;
+
+    return false;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,441 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.dependency.utils.markers.MarkerHandler;
+
+/**
+ * An index of the markers of the unpacked dependencies in a single file, instead of a marker file per artifact. The markers are
+ * keyed by the id of the artifact, and record the checksum of the artifact file, so that a marker is not considered to be set if the
+ * artifact has changed. The file is a header, followed by records that are appended, and is read via memory mapping from the end of
+ * the records that have already been read. The file is shared by concurrent Maven processes: it is read under a shared lock, and
+ * written under an exclusive lock. Once most of its records are superseded, it is compacted in place, which increments the generation
+ * in its header, so that other processes read it again from the start.
+ * <p>
+ * A record is an {@code int} length, followed by the payload (a {@code byte} type, a {@code long} time, the key and the checksum),
+ * and the CRC-32 of the payload. A record that is incomplete, such as one that was torn by a crash, ends the records that are read,
+ * and is overwritten by the next record that is appended.
+ */
+final class MarkerIndex {
+  private static final int MAGIC = 0x4a444d49;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final byte SET = 1;
+  private static final byte CLEAR = 0;
+  private static final int COMPACT_THRESHOLD = 1024;
+  private static final Map<File,MarkerIndex> instances = new ConcurrentHashMap<>();
+
+  static final class Marker {
+    private final String checksum;
+    private final long time;
+
+    private Marker(final String checksum, final long time) {
+      this.checksum = checksum;
+      this.time = time;
+    }
+
+    String getChecksum() {
+      return checksum;
+    }
+
+    long getTime() {
+      return time;
+    }
+  }
+
+  /**
+   * A {@link MarkerHandler} that checks the markers in a snapshot of a {@link MarkerIndex}, so that the markers of all dependencies
+   * of a module are checked with a single read of the index. The artifacts that are checked are the dependencies themselves, so they
+   * are translated to the artifacts of the classifier that is unpacked, which are the artifacts that are marked.
+   */
+  final class Handler implements MarkerHandler {
+    private final Map<String,Marker> snapshot;
+    private final String classifier;
+    private Artifact artifact;
+
+    private Handler(final Map<String,Marker> snapshot, final String classifier) {
+      this.snapshot = snapshot;
+      this.classifier = classifier;
+    }
+
+    private Artifact translate(final Artifact artifact) {
+      return classifier == null || classifier.equals(artifact.getClassifier()) ? artifact : new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersionRange(), artifact.getScope(), artifact.getType(), classifier, artifact.getArtifactHandler());
+    }
+
+    @Override
+    public void setArtifact(final Artifact artifact) {
+      this.artifact = translate(artifact);
+    }
+
+    @Override
+    public boolean isMarkerSet() throws MojoExecutionException {
+      final Marker marker = snapshot.get(getKey(artifact));
+      try {
+        return marker != null && marker.getChecksum().equals(getChecksum(getFile(artifact)));
+      }
+      catch (final IOException e) {
+        throw new MojoExecutionException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public boolean isMarkerOlder(final Artifact artifact) {
+      final Artifact translated = translate(artifact);
+      final Marker marker = snapshot.get(getKey(translated));
+      return marker != null && marker.getTime() < getFile(translated).lastModified();
+    }
+
+    @Override
+    public void setMarker() throws MojoExecutionException {
+      try {
+        MarkerIndex.this.setMarker(artifact);
+      }
+      catch (final IOException e) {
+        throw new MojoExecutionException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public boolean clearMarker() throws MojoExecutionException {
+      try {
+        return MarkerIndex.this.clearMarker(artifact);
+      }
+      catch (final IOException e) {
+        throw new MojoExecutionException(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns the {@link MarkerIndex} of the specified local repository.
+   *
+   * @param localRepository The local repository directory.
+   * @return The {@link MarkerIndex} of the specified local repository.
+   */
+  static MarkerIndex of(final File localRepository) {
+    return instances.computeIfAbsent(localRepository.getAbsoluteFile(), MarkerIndex::new);
+  }
+
+  static String getKey(final Artifact artifact) {
+    return artifact.getId();
+  }
+
+  /**
+   * Returns the checksum of the specified artifact file, which is the SHA-1 that the repository system stored next to the file, or
+   * the length and modification time of the file if there is none.
+   *
+   * @param file The artifact file.
+   * @return The checksum of the specified artifact file.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static String getChecksum(final File file) throws IOException {
+    if (file == null)
+      return "";
+
+    final File sha1File = new File(file.getPath() + ".sha1");
+    if (sha1File.exists()) {
+      final String sha1 = new String(Files.readAllBytes(sha1File.toPath()), StandardCharsets.UTF_8).trim();
+      if (sha1.length() >= 40)
+        return sha1.substring(0, 40);
+    }
+
+    return Long.toHexString(file.length()) + "-" + Long.toHexString(file.lastModified());
+  }
+
+  private final File localRepository;
+  private final File file;
+  private final Map<String,Marker> markers = new HashMap<>();
+  private FileChannel channel;
+  private long generation = -1;
+  private long offset;
+  private int records;
+
+  MarkerIndex(final File localRepository) {
+    this.localRepository = localRepository;
+    this.file = new File(localRepository, ".javadocio/markers.idx");
+  }
+
+  /**
+   * Returns the file of the specified artifact, which is the path of the artifact in the local repository if the artifact has not
+   * been resolved yet, as is the case when the markers are checked.
+   *
+   * @param artifact The artifact.
+   * @return The file of the specified artifact.
+   */
+  File getFile(final Artifact artifact) {
+    if (artifact.getFile() != null)
+      return artifact.getFile();
+
+    final String extension = artifact.getArtifactHandler() != null ? artifact.getArtifactHandler().getExtension() : "jar";
+    final String name = artifact.getArtifactId() + "-" + artifact.getVersion() + (artifact.hasClassifier() ? "-" + artifact.getClassifier() : "") + "." + extension;
+    return new File(localRepository, artifact.getGroupId().replace('.', '/') + "/" + artifact.getArtifactId() + "/" + artifact.getBaseVersion() + "/" + name);
+  }
+
+  private FileChannel getChannel() throws IOException {
+    if (channel == null || !channel.isOpen()) {
+      file.getParentFile().mkdirs();
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+      generation = -1;
+    }
+
+    return channel;
+  }
+
+  /**
+   * Reads the records that were appended since the last read, or all records if the generation of the file has changed. Must be
+   * called with a lock on the file.
+   */
+  private void read(final FileChannel channel) throws IOException {
+    final long size = channel.size();
+    if (size < HEADER_SIZE) {
+      markers.clear();
+      records = 0;
+      offset = 0;
+      generation = -1;
+      return;
+    }
+
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    for (long position = 0; header.hasRemaining() && channel.read(header, position) != -1; position = header.position()); // [ST]
+    header.flip();
+    if (header.getInt() != MAGIC || header.getInt() != VERSION)
+      throw new IOException("Invalid marker index: " + file);
+
+    final long generation = header.getLong();
+    if (generation != this.generation || size < offset) {
+      markers.clear();
+      records = 0;
+      offset = HEADER_SIZE;
+      this.generation = generation;
+    }
+
+    if (size > offset) {
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size - offset);
+      offset += parse(buffer);
+    }
+  }
+
+  private int parse(final ByteBuffer buffer) throws IOException {
+    int end = 0;
+    final CRC32 crc = new CRC32();
+    while (buffer.remaining() >= 4) {
+      final int length = buffer.getInt();
+      if (length <= 0 || buffer.remaining() < length + 4)
+        break;
+
+      final byte[] payload = new byte[length];
+      buffer.get(payload);
+      crc.reset();
+      crc.update(payload, 0, length);
+      if ((int)crc.getValue() != buffer.getInt())
+        break;
+
+      try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+        final byte type = in.readByte();
+        final long time = in.readLong();
+        final String key = in.readUTF();
+        final String checksum = in.readUTF();
+        if (type == SET)
+          markers.put(key, new Marker(checksum, time));
+        else
+          markers.remove(key);
+      }
+
+      ++records;
+      end = buffer.position();
+    }
+
+    return end;
+  }
+
+  private static byte[] encode(final byte type, final String key, final Marker marker) throws IOException {
+    final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    try (final DataOutputStream out = new DataOutputStream(payload)) {
+      out.writeByte(type);
+      out.writeLong(marker.getTime());
+      out.writeUTF(key);
+      out.writeUTF(marker.getChecksum());
+    }
+
+    final byte[] bytes = payload.toByteArray();
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return ByteBuffer.allocate(bytes.length + 8).putInt(bytes.length).put(bytes).putInt((int)crc.getValue()).array();
+  }
+
+  private static void write(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) // [ST]
+      position += channel.write(buffer, position);
+  }
+
+  private void writeHeader(final FileChannel channel, final long generation) throws IOException {
+    write(channel, (ByteBuffer)ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(generation).flip(), 0);
+  }
+
+  /**
+   * Returns a {@link Handler} that checks the markers in a snapshot of this index.
+   *
+   * @param classifier The classifier of the artifacts that are unpacked, or {@code null} if the artifacts themselves are unpacked.
+   * @return A {@link Handler} that checks the markers in a snapshot of this index.
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized Handler newHandler(final String classifier) throws IOException {
+    final FileChannel channel = getChannel();
+    final FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+    try {
+      read(channel);
+    }
+    finally {
+      lock.release();
+    }
+
+    return new Handler(new HashMap<>(markers), classifier);
+  }
+
+  synchronized Marker getMarker(final String key) throws IOException {
+    final FileChannel channel = getChannel();
+    final FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+    try {
+      read(channel);
+    }
+    finally {
+      lock.release();
+    }
+
+    return markers.get(key);
+  }
+
+  private void append(final byte type, final String key, final Marker marker) throws IOException {
+    final FileChannel channel = getChannel();
+    final FileLock lock = channel.lock();
+    try {
+      read(channel);
+      if (offset == 0) {
+        generation = System.currentTimeMillis();
+        writeHeader(channel, generation);
+        offset = HEADER_SIZE;
+      }
+
+      // Discard an incomplete record at the end of the file
+      if (channel.size() > offset)
+        channel.truncate(offset);
+
+      final byte[] record = encode(type, key, marker);
+      write(channel, ByteBuffer.wrap(record), offset);
+      offset += record.length;
+      ++records;
+      if (type == SET)
+        markers.put(key, marker);
+      else
+        markers.remove(key);
+
+      if (records > COMPACT_THRESHOLD && records > 2 * markers.size())
+        compact(channel);
+    }
+    finally {
+      lock.release();
+    }
+  }
+
+  /**
+   * Sets the marker of the specified artifact.
+   *
+   * @param artifact The artifact.
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized void setMarker(final Artifact artifact) throws IOException {
+    append(SET, getKey(artifact), new Marker(getChecksum(getFile(artifact)), System.currentTimeMillis()));
+  }
+
+  /**
+   * Clears the marker of the specified artifact.
+   *
+   * @param artifact The artifact.
+   * @return Whether the marker was set.
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized boolean clearMarker(final Artifact artifact) throws IOException {
+    final String key = getKey(artifact);
+    if (getMarker(key) == null)
+      return false;
+
+    append(CLEAR, key, new Marker("", System.currentTimeMillis()));
+    return true;
+  }
+
+  /**
+   * Rewrites the file in place with only the records of the markers that are set, and increments its generation. Must be called
+   * with an exclusive lock on the file.
+   */
+  private void compact(final FileChannel channel) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (final Map.Entry<String,Marker> entry : markers.entrySet()) // [S]
+      out.write(encode(SET, entry.getKey(), entry.getValue()));
+
+    final byte[] bytes = out.toByteArray();
+    write(channel, ByteBuffer.wrap(bytes), HEADER_SIZE);
+    channel.truncate(HEADER_SIZE + bytes.length);
+    // The generation is written last, so a crash before this point at worst loses markers, whose artifacts are then unpacked again
+    writeHeader(channel, ++generation);
+    channel.force(false);
+    offset = HEADER_SIZE + bytes.length;
+    records = markers.size();
+  }
+
+  /**
+   * Compacts the file of this index.
+   *
+   * @throws IOException If an I/O error has occurred.
+   */
+  synchronized void compact() throws IOException {
+    final FileChannel channel = getChannel();
+    final FileLock lock = channel.lock();
+    try {
+      read(channel);
+      if (offset > 0)
+        compact(channel);
+    }
+    finally {
+      lock.release();
+    }
+  }
+
+  synchronized int getRecords() {
+    return records;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The timings of the phases of the execution of a module, and the counts of its HTTP requests, downloaded bytes and cache hits and
+ * misses. The metrics of a module are written as JSON to its build directory, and the metrics of all modules of the reactor are
+ * summarized once the reactor is complete.
+ * <p>
+ * Phases that run on several threads, such as the resolution of links, accumulate the time of every thread, and may therefore
+ * exceed the wall-clock time of the module.
+ */
+final class Metrics {
+  private static final List<Metrics> reactor = Collections.synchronizedList(new ArrayList<>());
+  private static final int TOP_MODULES = 5;
+
+  /** The phase that spans the whole execution of a module, by which the modules are ranked in the summary. */
+  static final String TOTAL = "total";
+
+  private final String module;
+  private final String goal;
+  private final Map<String,AtomicLong[]> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+  private final Map<String,AtomicLong> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  /**
+   * Creates a new {@link Metrics} for the specified module, and registers it for the summary of the reactor.
+   *
+   * @param module The id of the module.
+   * @param goal The goal that is executed.
+   */
+  Metrics(final String module, final String goal) {
+    this.module = module;
+    this.goal = goal;
+    reactor.add(this);
+  }
+
+  /**
+   * Returns the start time of a phase, to be passed to {@link #stop(String,long)} at its end.
+   *
+   * @return The start time of a phase.
+   */
+  long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Adds the time since {@code start} to the specified phase, and counts an occurrence of the phase.
+   *
+   * @param phase The name of the phase.
+   * @param start The start time of the phase, as returned by {@link #start()}.
+   */
+  void stop(final String phase, final long start) {
+    final long nanos = System.nanoTime() - start;
+    final AtomicLong[] values = phases.computeIfAbsent(phase, (final String k) -> new AtomicLong[] {new AtomicLong(), new AtomicLong()});
+    values[0].addAndGet(nanos);
+    values[1].incrementAndGet();
+  }
+
+  /**
+   * Adds {@code delta} to the specified counter.
+   *
+   * @param counter The name of the counter.
+   * @param delta The amount to add.
+   */
+  void count(final String counter, final long delta) {
+    counters.computeIfAbsent(counter, (final String k) -> new AtomicLong()).addAndGet(delta);
+  }
+
+  String getGoal() {
+    return goal;
+  }
+
+  private long getTotalMillis() {
+    final AtomicLong[] values = phases.get(TOTAL);
+    return values == null ? 0 : TimeUnit.NANOSECONDS.toMillis(values[0].get());
+  }
+
+  private static void appendString(final StringBuilder builder, final String value) {
+    builder.append('"');
+    for (int i = 0, i$ = value.length(); i < i$; ++i) {
+      final char ch = value.charAt(i);
+      if (ch == '"' || ch == '\\')
+        builder.append('\\').append(ch);
+      else if (ch < 0x20)
+        builder.append(String.format("\\u%04x", (int)ch));
+      else
+        builder.append(ch);
+    }
+
+    builder.append('"');
+  }
+
+  private void appendJson(final StringBuilder builder, final String indent) {
+    builder.append(indent).append("{\n");
+    builder.append(indent).append("  \"module\": ");
+    appendString(builder, module);
+    builder.append(",\n").append(indent).append("  \"goal\": ");
+    appendString(builder, goal);
+    builder.append(",\n").append(indent).append("  \"totalMillis\": ").append(getTotalMillis());
+    builder.append(",\n").append(indent).append("  \"phases\": {");
+    synchronized (phases) {
+      String separator = "\n";
+      for (final Map.Entry<String,AtomicLong[]> entry : phases.entrySet()) { // [S]
+        builder.append(separator).append(indent).append("    ");
+        appendString(builder, entry.getKey());
+        builder.append(": {\"millis\": ").append(TimeUnit.NANOSECONDS.toMillis(entry.getValue()[0].get())).append(", \"count\": ").append(entry.getValue()[1].get()).append('}');
+        separator = ",\n";
+      }
+    }
+
+    builder.append('\n').append(indent).append("  },\n").append(indent).append("  \"counters\": {");
+    synchronized (counters) {
+      String separator = "\n";
+      for (final Map.Entry<String,AtomicLong> entry : counters.entrySet()) { // [S]
+        builder.append(separator).append(indent).append("    ");
+        appendString(builder, entry.getKey());
+        builder.append(": ").append(entry.getValue().get());
+        separator = ",\n";
+      }
+    }
+
+    builder.append('\n').append(indent).append("  }\n").append(indent).append('}');
+  }
+
+  private static void write(final File file, final StringBuilder builder) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), builder.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Writes these metrics as JSON to the specified file.
+   *
+   * @param file The file.
+   * @throws IOException If an I/O error has occurred.
+   */
+  void write(final File file) throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    appendJson(builder, "");
+    write(file, builder);
+  }
+
+  /**
+   * Writes the metrics of all modules that were registered since the last summary as a JSON array to the specified file, logs the
+   * modules that took the longest, and clears the registered modules.
+   *
+   * @param file The file.
+   * @param log The {@link Log}.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static void writeSummary(final File file, final Log log) throws IOException {
+    final ArrayList<Metrics> modules;
+    synchronized (reactor) {
+      modules = new ArrayList<>(reactor);
+      reactor.clear();
+    }
+
+    if (modules.size() == 0)
+      return;
+
+    final StringBuilder builder = new StringBuilder("[");
+    for (int i = 0, i$ = modules.size(); i < i$; ++i) { // [RA]
+      builder.append(i == 0 ? "\n" : ",\n");
+      modules.get(i).appendJson(builder, "  ");
+    }
+
+    write(file, builder.append("\n]"));
+
+    modules.sort((final Metrics o1, final Metrics o2) -> Long.compare(o2.getTotalMillis(), o1.getTotalMillis()));
+    log.info("Slowest modules (see " + file.getPath() + "):");
+    for (int i = 0, i$ = Math.min(TOP_MODULES, modules.size()); i < i$; ++i) { // [RA]
+      final Metrics metrics = modules.get(i);
+      log.info("  " + metrics.module + " (" + metrics.goal + "): " + metrics.getTotalMillis() + " ms");
+    }
+  }
+}
\ No newline at end of file
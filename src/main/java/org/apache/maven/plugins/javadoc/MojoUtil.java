@@ -24,6 +24,13 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Model;
@@ -37,53 +44,315 @@ final class MojoUtil {
   private static final int BUFFER_SIZE = 4096;
   private static final int CONNECT_TIMEOUT = 5000;
   private static final int READ_TIMEOUT = 3000;
+  private static final int MAX_REDIRECTS = 5;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int MAX_CACHED_MODELS = 1024;
+  private static volatile boolean offline;
+
+  static {
+    // Connections are kept alive and reused per host by HttpURLConnection, as long as their streams are read to the end and closed
+    System.setProperty("http.keepAlive", "true");
+    if (System.getProperty("http.maxConnections") == null)
+      System.setProperty("http.maxConnections", "16");
+  }
+
+  /**
+   * Thrown when a request is made in offline mode, instead of opening a connection.
+   */
+  static final class OfflineException extends IOException {
+    private static final long serialVersionUID = 2890716381467309537L;
+
+    private OfflineException(final URL url) {
+      super("Offline: " + url);
+    }
+  }
+
+  /**
+   * Sets whether requests are refused with an {@link OfflineException}, without opening a connection, as is the case in the offline
+   * mode of Maven.
+   *
+   * @param offline Whether requests are refused.
+   */
+  static void setOffline(final boolean offline) {
+    MojoUtil.offline = offline;
+  }
+
+  /**
+   * The result of {@link MojoUtil#downloadFile(String,File,String)}.
+   */
+  static final class Download {
+    private final String url;
+    private final int responseCode;
+    private final String validator;
+
+    private Download(final String url, final int responseCode, final String validator) {
+      this.url = url;
+      this.responseCode = responseCode;
+      this.validator = validator;
+    }
+
+    /**
+     * @return The URL from which the file was downloaded.
+     */
+    String getUrl() {
+      return url;
+    }
+
+    /**
+     * @return The HTTP response code.
+     */
+    int getResponseCode() {
+      return responseCode;
+    }
+
+    /**
+     * @return The {@code ETag} of the response, or its {@code Last-Modified} value if the response has no {@code ETag}, or
+     *         {@code null} if the response has neither.
+     */
+    String getValidator() {
+      return validator;
+    }
+  }
+
+  private static boolean isETag(final String validator) {
+    return validator != null && (validator.startsWith("\"") || validator.startsWith("W/\""));
+  }
+
+  /**
+   * Reads the remaining content of the specified connection's response and closes its stream, which returns the underlying
+   * connection to the keep-alive cache of {@link HttpURLConnection} for reuse by subsequent requests to the same host.
+   *
+   * @param connection The {@link HttpURLConnection}.
+   */
+  private static void release(final HttpURLConnection connection) {
+    try (final InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+      if (in != null) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        while (in.read(buffer) != -1);
+      }
+    }
+    catch (final IOException e) {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Makes a request to the specified {@link URL} without following redirects. The timeouts of the request are adapted to the
+   * latencies of the host as per {@link HostHealth#getTimeout(int,int)}, and the request is retried with backoff up to
+   * {@value HostHealth#MAX_ATTEMPTS} times if it fails with an {@link IOException} or a {@code 5xx} or {@code 429} response.
+   *
+   * @param method The request method.
+   * @param url The URL.
+   * @param ifModifiedSince The value of the {@code If-Modified-Since} header, or {@code 0} to not send the header.
+   * @param ifNoneMatch The value of the {@code If-None-Match} header, or {@code null} to not send the header.
+   * @return The {@link HttpURLConnection} of the response, for which the response code has been received.
+   * @throws IOException If an I/O error has occurred on the last attempt, if the circuit of the host is open, or if offline.
+   */
+  private static HttpURLConnection request(final String method, final URL url, final long ifModifiedSince, final String ifNoneMatch) throws IOException {
+    if (offline)
+      throw new OfflineException(url);
+
+    final HostHealth health = HostHealth.of(url);
+    for (int attempt = 0;; ++attempt) {
+      health.checkAvailable();
+      final long start = System.nanoTime();
+      HttpURLConnection connection = null;
+      // The connection is set up in the try, so that the request is recorded in the HostHealth even if it cannot be made, because
+      // the host would otherwise be left in its trial request
+      try {
+        connection = (HttpURLConnection)url.openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(health.getTimeout(CONNECT_TIMEOUT, attempt));
+        connection.setReadTimeout(health.getTimeout(READ_TIMEOUT, attempt));
+        connection.setRequestMethod(method);
+        if (ifModifiedSince > 0)
+          connection.setIfModifiedSince(ifModifiedSince);
+
+        if (ifNoneMatch != null)
+          connection.setRequestProperty("If-None-Match", ifNoneMatch);
+
+        final int responseCode = connection.getResponseCode();
+        if (responseCode < 500 && responseCode != HTTP_TOO_MANY_REQUESTS) {
+          health.success(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+          return connection;
+        }
+
+        health.failure();
+        if (attempt + 1 >= HostHealth.MAX_ATTEMPTS || health.isOpen())
+          return connection;
+
+        release(connection);
+      }
+      catch (final UnknownHostException e) {
+        health.failure();
+        throw e;
+      }
+      catch (final IOException e) {
+        if (connection != null)
+          connection.disconnect();
+
+        health.failure();
+        if (attempt + 1 >= HostHealth.MAX_ATTEMPTS || health.isOpen())
+          throw e;
+      }
+      catch (final RuntimeException e) {
+        health.abort();
+        throw e;
+      }
+
+      health.backoff(attempt);
+    }
+  }
+
+  /**
+   * Opens a connection to the specified {@code url} with the provided request {@code method}, and follows redirects, including
+   * redirects between {@code http} and {@code https}, which {@link HttpURLConnection} does not follow by itself.
+   *
+   * @param method The request method.
+   * @param url The URL.
+   * @param ifModifiedSince The value of the {@code If-Modified-Since} header, or {@code 0} to not send the header.
+   * @param ifNoneMatch The value of the {@code If-None-Match} header, or {@code null} to not send the header.
+   * @return The {@link HttpURLConnection} of the final response, for which the response code has been received.
+   * @throws IOException If an I/O error has occurred, if there are more than {@value #MAX_REDIRECTS} redirects, or if the circuit
+   *           of a host is open.
+   */
+  private static HttpURLConnection open(final String method, final String url, final long ifModifiedSince, final String ifNoneMatch) throws IOException {
+    URL location = new URL(url);
+    for (int i = 0; i <= MAX_REDIRECTS; ++i) {
+      final HttpURLConnection connection = request(method, location, ifModifiedSince, ifNoneMatch);
+      final int responseCode = connection.getResponseCode();
+      if (responseCode < 300 || responseCode > 399 || responseCode == HttpURLConnection.HTTP_NOT_MODIFIED)
+        return connection;
+
+      final String redirect = connection.getHeaderField("Location");
+      release(connection);
+      if (redirect == null)
+        throw new IOException("Redirect without Location: " + location);
+
+      location = new URL(location, redirect);
+    }
+
+    throw new IOException("Too many redirects: " + url);
+  }
 
   /**
    * Downloads a file from the specified {@code url} to the provided {@code file}. If the provided {@code file} exists, its
-   * lastModified timestamp is used to specify the {@code If-Modified-Since} header in the GET request. Content is not downloaded if
+   * lastModified timestamp is used to specify the {@code If-Modified-Since} header in the GET request, and the specified
+   * {@code validator} is used to specify the {@code If-None-Match} header if it is an {@code ETag}. Content is not downloaded if
    * the file at the specified {@code url} is not modified.
    *
    * @param url The {@link URL} from which to download.
    * @param file The destination {@link File}.
-   * @return The HTTP response code.
+   * @param validator The validator of the last download of the {@code file}, or {@code null} if unknown.
+   * @return The {@link Download} with the HTTP response code and the validator of the response.
    * @throws IOException If an I/O error has occurred.
    */
-  static int downloadFile(final String url, final File file) throws IOException {
-    final HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection(); // FIXME: This does not follow redirects. See {@link URLConnections#checkFollowRedirect(URLConnection)}.
-    connection.setConnectTimeout(CONNECT_TIMEOUT);
-    connection.setReadTimeout(READ_TIMEOUT);
-    try {
-      connection.setIfModifiedSince(file.lastModified());
-      final int responseCode = connection.getResponseCode();
-      if (responseCode != HttpURLConnection.HTTP_NOT_MODIFIED && responseCode == HttpURLConnection.HTTP_OK) {
+  static Download downloadFile(final String url, final File file, final String validator) throws IOException {
+    final boolean exists = file.exists();
+    final HttpURLConnection connection = open("GET", url, exists ? file.lastModified() : 0, exists && isETag(validator) ? validator : null);
+    final int responseCode = connection.getResponseCode();
+    if (responseCode == HttpURLConnection.HTTP_OK) {
+      // Download to a temporary file that replaces the file atomically, so that a concurrent reader, or the next build after an
+      // interrupted download, never sees a truncated file
+      final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+      try {
         try (
           final InputStream in = connection.getInputStream();
-          final FileOutputStream out = new FileOutputStream(file);
+          final FileOutputStream out = new FileOutputStream(tempFile);
         ) {
           final byte[] buffer = new byte[BUFFER_SIZE];
           for (int read; (read = in.read(buffer)) != -1; out.write(buffer, 0, read)); // [ST]
         }
-      }
 
-      return responseCode;
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      finally {
+        tempFile.delete();
+      }
     }
-    finally {
-      connection.disconnect();
+    else {
+      release(connection);
     }
+
+    final String etag = connection.getHeaderField("ETag");
+    return new Download(url, responseCode, etag != null ? etag : connection.getHeaderField("Last-Modified"));
   }
 
-  static Model getModelArtifact(final File pomFile)  {
+  /**
+   * Downloads a file from the specified {@code url} to the provided {@code file}, as per
+   * {@link #downloadFile(String,File,String)} without a validator.
+   *
+   * @param url The {@link URL} from which to download.
+   * @param file The destination {@link File}.
+   * @return The {@link Download} with the HTTP response code and the validator of the response.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static Download downloadFile(final String url, final File file) throws IOException {
+    return downloadFile(url, file, null);
+  }
+
+  /**
+   * A parsed POM, which is valid for as long as the last-modified time and length of its file are unchanged.
+   */
+  private static final class CachedModel {
+    private final long lastModified;
+    private final long length;
+    private final Model model;
+    private volatile boolean urlResolved;
+    private volatile String url;
+
+    private CachedModel(final long lastModified, final long length, final Model model) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.model = model;
+    }
+  }
+
+  private static final Map<String,CachedModel> pathToModel = Collections.synchronizedMap(new LinkedHashMap<String,CachedModel>(16, 0.75f, true) {
+    private static final long serialVersionUID = 6497204936142745520L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String,CachedModel> eldest) {
+      return size() > MAX_CACHED_MODELS;
+    }
+  });
+
+  private static CachedModel getCachedModel(final File pomFile) {
     try {
-      final MavenXpp3Reader reader = new MavenXpp3Reader();
-      final Model model = reader.read(new FileReader(pomFile));
-      model.setPomFile(pomFile);
-      return model;
+      final File file = pomFile.getCanonicalFile();
+      final long lastModified = file.lastModified();
+      final long length = file.length();
+      final String key = file.getPath();
+      final CachedModel cached = pathToModel.get(key);
+      if (cached != null && cached.lastModified == lastModified && cached.length == length)
+        return cached;
+
+      // Parsed outside of the lock, so that concurrent callers do not wait on each other's POMs
+      try (final FileReader in = new FileReader(pomFile)) {
+        final Model model = new MavenXpp3Reader().read(in);
+        model.setPomFile(pomFile);
+        final CachedModel parsed = new CachedModel(lastModified, length, model);
+        pathToModel.put(key, parsed);
+        return parsed;
+      }
     }
     catch (final IOException | XmlPullParserException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Returns the {@link Model} of the specified POM file. Models are cached by the canonical path of their file, and are reparsed
+   * only if the file has been modified. The returned model is shared, and must therefore not be modified.
+   *
+   * @param pomFile The POM file.
+   * @return The {@link Model} of the specified POM file.
+   * @throws IllegalStateException If the POM file cannot be read or parsed.
+   */
+  static Model getModelArtifact(final File pomFile)  {
+    return getCachedModel(pomFile).model;
+  }
+
   private static String getId(final Model model) {
     final String groupId = model.getGroupId() != null ? model.getGroupId() : model.getParent().getGroupId();
     final String version = model.getVersion() != null ? model.getVersion() : model.getParent().getVersion();
@@ -96,17 +365,36 @@ final class MojoUtil {
     return getModelUrl(new File(parentPath, parent.getArtifactId() + "-" + parent.getVersion() + ".pom"));
   }
 
+  /**
+   * Returns the URL of the specified POM file in the local repository, which is either declared in the POM, or derived from the URL
+   * of its parent. The URL is memoized with the cached {@link Model} of the POM.
+   *
+   * @param pomFile The POM file.
+   * @return The URL of the specified POM file, or {@code null} if the POM file does not exist, or neither it nor its parents
+   *         declare a URL.
+   */
   static String getModelUrl(final File pomFile) {
-    final Model model = getModelArtifact(pomFile);
-    final String url = cleanUrl(model.getUrl());
-    if (url != null)
-      return url;
+    if (!pomFile.exists())
+      return null;
+
+    final CachedModel cached = getCachedModel(pomFile);
+    if (cached.urlResolved)
+      return cached.url;
 
-    final String id = getId(model);
-    final String artifactDir = pomFile.getParent();
-    final String localRepoPath = artifactDir.substring(0, artifactDir.length() - id.length());
-    final String parentUrl = getParentPath(localRepoPath, model.getParent());
-    return parentUrl + model.getArtifactId() + "/";
+    final Model model = cached.model;
+    String url = cleanUrl(model.getUrl());
+    if (url == null && model.getParent() != null) {
+      final String id = getId(model);
+      final String artifactDir = pomFile.getParent();
+      final String localRepoPath = artifactDir.substring(0, artifactDir.length() - id.length());
+      final String parentUrl = getParentPath(localRepoPath, model.getParent());
+      if (parentUrl != null)
+        url = parentUrl + model.getArtifactId() + "/";
+    }
+
+    cached.url = url;
+    cached.urlResolved = true;
+    return url;
   }
 
   static void checkPackageList(final String destDir) throws IOException {
@@ -118,14 +406,63 @@ final class MojoUtil {
     }
   }
 
+  /**
+   * Returns the response code of a {@code HEAD} request to the specified {@code url} that follows redirects. If the server does not
+   * support {@code HEAD}, a {@code GET} request is made instead.
+   *
+   * @param url The URL.
+   * @return The response code of a {@code HEAD} request to the specified {@code url}.
+   * @throws IOException If an I/O error has occurred, or if the circuit of a host is open.
+   */
+  static int head(final String url) throws IOException {
+    HttpURLConnection connection = open("HEAD", url, 0, null);
+    int responseCode = connection.getResponseCode();
+    if (responseCode == HttpURLConnection.HTTP_BAD_METHOD || responseCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+      release(connection);
+      connection = open("GET", url, 0, null);
+      responseCode = connection.getResponseCode();
+    }
+
+    release(connection);
+    return responseCode;
+  }
+
+  /**
+   * Makes a single {@code HEAD} request to the specified {@code url} whose response is of no use to the build, such as a request
+   * that triggers a server to prepare a resource. Unlike {@link #head(String)}, the request is not retried, and is not accounted in
+   * the {@link HostHealth} of the host, so that slow responses, which are expected of such requests, do not open the circuit of the
+   * host for the requests of the build.
+   *
+   * @param url The URL.
+   * @return The response code of the request.
+   * @throws IOException If an I/O error has occurred, or if offline.
+   */
+  static int trigger(final String url) throws IOException {
+    final URL location = new URL(url);
+    if (offline)
+      throw new OfflineException(location);
+
+    final HttpURLConnection connection = (HttpURLConnection)location.openConnection();
+    connection.setConnectTimeout(CONNECT_TIMEOUT);
+    connection.setReadTimeout(READ_TIMEOUT);
+    connection.setRequestMethod("HEAD");
+    try {
+      return connection.getResponseCode();
+    }
+    finally {
+      release(connection);
+    }
+  }
+
+  /**
+   * Returns whether a resource exists at the specified {@code url}, as determined by {@link #head(String)}.
+   *
+   * @param url The URL.
+   * @return Whether a resource exists at the specified {@code url}.
+   */
   static boolean exists(final String url) {
     try {
-      final HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection(); // FIXME: This does not follow redirects. See {@link URLConnections#checkFollowRedirect(URLConnection)}.
-      connection.setConnectTimeout(CONNECT_TIMEOUT);
-      connection.setReadTimeout(READ_TIMEOUT);
-      connection.connect();
-      connection.disconnect();
-      return true;
+      return head(url) < 300;
     }
     catch (final IOException e) {
       return false;
@@ -143,6 +480,17 @@ final class MojoUtil {
     }
   }
 
+  static Object getField(final Class<?> cls, final Object obj, final String name) {
+    try {
+      final Field field = cls.getDeclaredField(name);
+      field.setAccessible(true);
+      return field.get(obj);
+    }
+    catch (final NoSuchFieldException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   private static String cleanUrl(String url) {
     if (url == null)
       return null;
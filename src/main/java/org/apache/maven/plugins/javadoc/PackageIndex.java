@@ -0,0 +1,246 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugins.javadoc.options.OfflineLink;
+
+/**
+ * An index of the packages in the package-lists of a list of {@link OfflineLink}s, organized as a trie of package name segments in
+ * which each package is mapped to the ids of the links that claim it. The id of a link is its position in the list. The index
+ * determines which links are referenced by a set of sources, so that links that are not referenced can be pruned.
+ */
+final class PackageIndex {
+  private static final int[] EMPTY = {};
+
+  private static final class Node {
+    private Map<String,Node> children;
+    private int[] links = EMPTY;
+
+    private Node child(final String segment) {
+      return children == null ? null : children.get(segment);
+    }
+  }
+
+  private final Node root = new Node();
+  private final List<OfflineLink> links;
+  private final BitSet unindexed = new BitSet();
+  private int packages;
+
+  /**
+   * Creates a new {@link PackageIndex} of the package-lists (or element-lists) in the locations of the specified links. Links
+   * without a readable package-list are not indexed, and are therefore always considered to be referenced.
+   *
+   * @param links The {@link OfflineLink}s.
+   */
+  PackageIndex(final List<OfflineLink> links) {
+    this.links = links;
+    for (int i = 0, i$ = links.size(); i < i$; ++i) { // [RA]
+      final String location = links.get(i).getLocation();
+      File file = location == null ? null : new File(location, "package-list");
+      if (file != null && !file.exists())
+        file = new File(location, "element-list");
+
+      if (file == null || !file.exists() || !read(file, i))
+        unindexed.set(i);
+    }
+  }
+
+  private boolean read(final File file, final int link) {
+    try (final BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      for (String line; (line = in.readLine()) != null;) { // [ST]
+        line = line.trim();
+        // Skip the module declarations of element-lists
+        if (line.length() > 0 && !line.startsWith("module:"))
+          add(line, link);
+      }
+
+      return true;
+    }
+    catch (final IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Maps the specified package to the specified link.
+   *
+   * @param packageName The name of the package.
+   * @param link The id of the link.
+   */
+  void add(final String packageName, final int link) {
+    Node node = root;
+    for (int start = 0, end; start <= packageName.length(); start = end + 1) {
+      end = packageName.indexOf('.', start);
+      if (end == -1)
+        end = packageName.length();
+
+      final String segment = packageName.substring(start, end);
+      if (node.children == null)
+        node.children = new HashMap<>();
+
+      node = node.children.computeIfAbsent(segment, (final String k) -> new Node());
+    }
+
+    if (Arrays.binarySearch(node.links, link) >= 0)
+      return;
+
+    if (node.links.length == 0)
+      ++packages;
+
+    final int[] links = Arrays.copyOf(node.links, node.links.length + 1);
+    links[links.length - 1] = link;
+    Arrays.sort(links);
+    node.links = links;
+  }
+
+  /**
+   * @return The number of distinct packages in this index.
+   */
+  int getPackageCount() {
+    return packages;
+  }
+
+  /**
+   * Returns the ids of the links that claim the longest package that is a prefix of the specified qualified name, such as
+   * {@code org.example} for {@code org.example.Type.Member}.
+   *
+   * @param name The qualified name.
+   * @param start The index of the first character of the name in {@code text}.
+   * @param end The index after the last character of the name in {@code text}.
+   * @param text The text that contains the name.
+   * @return The ids of the links that claim the longest package that is a prefix of the specified qualified name.
+   */
+  private int[] find(final CharSequence text, final int start, final int end) {
+    int[] links = EMPTY;
+    Node node = root;
+    for (int i = start, j; i < end && node != null; i = j + 1) {
+      for (j = i; j < end && text.charAt(j) != '.'; ++j);
+      node = node.child(text.subSequence(i, j).toString());
+      if (node != null && node.links.length > 0)
+        links = node.links;
+    }
+
+    return links;
+  }
+
+  /**
+   * Sets the ids of the links that are referenced by the qualified names in the specified text, such as those of imports, fully
+   * qualified types, and {@code {@link}} tags.
+   *
+   * @param text The text, such as the contents of a {@code .java} file.
+   * @param used The {@link BitSet} of referenced link ids.
+   */
+  void findReferences(final CharSequence text, final BitSet used) {
+    for (int i = 0, len = text.length(); i < len;) {
+      if (!Character.isJavaIdentifierStart(text.charAt(i)) || i > 0 && (Character.isJavaIdentifierPart(text.charAt(i - 1)) || text.charAt(i - 1) == '.')) {
+        ++i;
+        continue;
+      }
+
+      int end = i;
+      boolean qualified = false;
+      while (true) {
+        for (++end; end < len && Character.isJavaIdentifierPart(text.charAt(end)); ++end);
+        if (end + 1 >= len || text.charAt(end) != '.' || !Character.isJavaIdentifierStart(text.charAt(end + 1)))
+          break;
+
+        qualified = true;
+        ++end;
+      }
+
+      if (qualified)
+        for (final int link : find(text, i, end)) // [A]
+          used.set(link);
+
+      i = end;
+    }
+  }
+
+  /**
+   * Returns the ids of the links that are referenced by the {@code .java} files under the specified source paths, including the
+   * links that are not indexed.
+   *
+   * @param sourcePaths The source paths.
+   * @return The ids of the links that are referenced by the {@code .java} files under the specified source paths.
+   * @throws IOException If an I/O error has occurred.
+   */
+  BitSet findReferences(final Iterable<String> sourcePaths) throws IOException {
+    final BitSet used = (BitSet)unindexed.clone();
+    if (root.children == null)
+      return used;
+
+    for (final String sourcePath : sourcePaths) { // [C]
+      final Path dir = new File(sourcePath).toPath();
+      if (!Files.isDirectory(dir))
+        continue;
+
+      try (final Stream<Path> stream = Files.walk(dir)) {
+        for (final Path file : (Iterable<Path>)stream.filter((final Path p) -> p.getFileName().toString().endsWith(".java"))::iterator) // [ST]
+          findReferences(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1), used);
+      }
+    }
+
+    return used;
+  }
+
+  /**
+   * Returns the packages that are claimed by more than one link, mapped to the ids of the links that claim them, in the order of
+   * the package names.
+   *
+   * @return The packages that are claimed by more than one link.
+   */
+  Map<String,int[]> getOverlaps() {
+    final Map<String,int[]> overlaps = new TreeMap<>();
+    getOverlaps(root, new StringBuilder(), overlaps);
+    return overlaps;
+  }
+
+  private static void getOverlaps(final Node node, final StringBuilder name, final Map<String,int[]> overlaps) {
+    if (node.links.length > 1)
+      overlaps.put(name.toString(), node.links);
+
+    if (node.children == null)
+      return;
+
+    final int length = name.length();
+    for (final Map.Entry<String,Node> entry : node.children.entrySet()) { // [S]
+      if (length > 0)
+        name.append('.');
+
+      getOverlaps(entry.getValue(), name.append(entry.getKey()), overlaps);
+      name.setLength(length);
+    }
+  }
+
+  OfflineLink getLink(final int id) {
+    return links.get(id);
+  }
+}
\ No newline at end of file
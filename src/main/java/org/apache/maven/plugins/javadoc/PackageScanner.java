@@ -0,0 +1,432 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Detects the source roots of a tree of generated sources by reading the {@code package} declaration from the header of as few
+ * {@code .java} files as possible.
+ */
+final class PackageScanner {
+  private static final int HEADER_SIZE = 8192;
+
+  /**
+   * Thrown by the lexer when it reaches the end of the bytes that were read before the package declaration could be determined.
+   */
+  private static final class UnderflowException extends Exception {
+    private static final long serialVersionUID = -3014826547683185764L;
+
+    private UnderflowException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final UnderflowException underflow = new UnderflowException();
+
+  /**
+   * A persistent cache of the packages that are declared in {@code .java} files, keyed by the path of each file, and valid for as
+   * long as its size and modification time are unchanged. A scan with a cache reads only the files that are new or modified since
+   * the cache was saved, so that the scan of an unchanged tree only walks the metadata of its files. The saved cache contains only
+   * the files that were visited by the last scan.
+   */
+  static final class Cache {
+    private static final String HEADER = "javadocio-packages 1";
+
+    private static final class Entry {
+      private final long size;
+      private final long lastModified;
+      private final String packageName;
+
+      private Entry(final long size, final long lastModified, final String packageName) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.packageName = packageName;
+      }
+    }
+
+    private final Map<String,Entry> previous;
+    private final Map<String,Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private Cache(final Map<String,Entry> previous) {
+      this.previous = previous;
+    }
+
+    /**
+     * Returns the {@link Cache} that was saved to the specified file, or an empty {@link Cache} if the file does not exist or is not
+     * readable.
+     *
+     * @param file The cache file.
+     * @return The {@link Cache} that was saved to the specified file.
+     */
+    static Cache load(final File file) {
+      final Map<String,Entry> entries = new HashMap<>();
+      if (file.exists()) {
+        try (final BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+          if (HEADER.equals(in.readLine())) {
+            for (String line; (line = in.readLine()) != null;) { // [ST]
+              final String[] parts = line.split("\t", 4);
+              if (parts.length == 4)
+                entries.put(parts[3], new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]));
+            }
+          }
+        }
+        catch (final IOException | NumberFormatException e) {
+          entries.clear();
+        }
+      }
+
+      return new Cache(entries);
+    }
+
+    /**
+     * Saves the entries of the files that were visited by the last scan with this cache to the specified file, if they differ from
+     * the entries that were loaded.
+     *
+     * @param file The cache file.
+     * @throws IOException If an I/O error has occurred.
+     */
+    void save(final File file) throws IOException {
+      if (misses.get() == 0 && current.size() == previous.size())
+        return;
+
+      file.getParentFile().mkdirs();
+      final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+      try {
+        try (final BufferedWriter out = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+          out.write(HEADER);
+          out.write('\n');
+          for (final Map.Entry<String,Entry> entry : current.entrySet()) { // [S]
+            final Entry value = entry.getValue();
+            out.write(value.size + "\t" + value.lastModified + "\t" + value.packageName + "\t" + entry.getKey());
+            out.write('\n');
+          }
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      finally {
+        tempFile.delete();
+      }
+    }
+
+    private String readPackage(final Path file, final BasicFileAttributes attrs) throws IOException {
+      final String key = file.toAbsolutePath().toString();
+      final long lastModified = attrs.lastModifiedTime().toMillis();
+      final Entry entry = previous.get(key);
+      if (entry != null && entry.size == attrs.size() && entry.lastModified == lastModified) {
+        hits.incrementAndGet();
+        current.put(key, entry);
+        return entry.packageName;
+      }
+
+      misses.incrementAndGet();
+      final String packageName = PackageScanner.readPackage(file);
+      // Files with an undeterminable package are not cached, so that they are reported again
+      if (packageName != null)
+        current.put(key, new Entry(attrs.size(), lastModified, packageName));
+
+      return packageName;
+    }
+
+    /**
+     * @return The number of files whose package was served by this cache.
+     */
+    int getHits() {
+      return hits.get();
+    }
+
+    /**
+     * @return The number of files that were read, because they were new or modified.
+     */
+    int getMisses() {
+      return misses.get();
+    }
+  }
+
+  /**
+   * Returns the source roots of the {@code .java} files in the specified directory, as per
+   * {@link #findSourceRoots(Path,Cache,Log)} without a cache.
+   *
+   * @param dir The directory, such as {@code target/generated-sources}.
+   * @param log The {@link Log} to which files with an undeterminable package are reported.
+   * @return The source roots of the {@code .java} files in the specified directory.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static List<String> findSourceRoots(final Path dir, final Log log) throws IOException {
+    return findSourceRoots(dir, null, log);
+  }
+
+  /**
+   * Returns the source roots of the {@code .java} files in the specified directory. The subdirectories of {@code dir} are scanned in
+   * parallel. Each walk skips the remainder of a directory as soon as the source root of one of its files is known, because all
+   * other files under that root are covered by it.
+   *
+   * @param dir The directory, such as {@code target/generated-sources}.
+   * @param cache The {@link Cache} of the packages of the files, or {@code null} to read every file that is visited.
+   * @param log The {@link Log} to which files with an undeterminable package are reported.
+   * @return The source roots of the {@code .java} files in the specified directory.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static List<String> findSourceRoots(final Path dir, final Cache cache, final Log log) throws IOException {
+    final List<Path> children;
+    try (final Stream<Path> stream = Files.list(dir)) {
+      children = stream.sorted().collect(Collectors.toList());
+    }
+
+    final List<Path> roots = new ArrayList<>();
+    for (int i = 0, i$ = children.size(); i < i$; ++i) { // [RA]
+      final Path child = children.get(i);
+      if (!Files.isDirectory(child) && child.getFileName().toString().endsWith(".java"))
+        addRoot(child, Files.readAttributes(child, BasicFileAttributes.class), cache, roots, log);
+    }
+
+    try {
+      children.parallelStream().filter(Files::isDirectory).map((final Path child) -> {
+        try {
+          return walk(child, cache, log);
+        }
+        catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).forEachOrdered(roots::addAll);
+    }
+    catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    final ArrayList<String> paths = new ArrayList<>(roots.size());
+    for (int i = 0, i$ = roots.size(); i < i$; ++i) // [RA]
+      paths.add(roots.get(i).toString());
+
+    return paths;
+  }
+
+  private static boolean isCovered(final Path dir, final List<Path> roots) {
+    for (int i = 0, i$ = roots.size(); i < i$; ++i) // [RA]
+      if (dir.startsWith(roots.get(i)))
+        return true;
+
+    return false;
+  }
+
+  private static boolean addRoot(final Path file, final BasicFileAttributes attrs, final Cache cache, final List<Path> roots, final Log log) throws IOException {
+    final String packageName = cache != null ? cache.readPackage(file, attrs) : readPackage(file);
+    if (packageName == null) {
+      log.warn("Could not determine package name of: " + file.toAbsolutePath());
+      return false;
+    }
+
+    Path root = file.toAbsolutePath().getParent();
+    if (packageName.length() > 0) {
+      final String[] names = packageName.split("\\.");
+      for (int i = names.length - 1; i >= 0; --i, root = root.getParent()) {
+        if (root == null || !names[i].equals(root.getFileName().toString())) {
+          log.warn("Package " + packageName + " does not match the path of: " + file.toAbsolutePath());
+          return false;
+        }
+      }
+    }
+
+    roots.add(root);
+    return true;
+  }
+
+  private static List<Path> walk(final Path dir, final Cache cache, final Log log) throws IOException {
+    final List<Path> roots = new ArrayList<>();
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+        return isCovered(dir.toAbsolutePath(), roots) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+        if (!attrs.isRegularFile() || !file.getFileName().toString().endsWith(".java"))
+          return FileVisitResult.CONTINUE;
+
+        // A root may have been found in a subdirectory that was visited before this file
+        return isCovered(file.toAbsolutePath().getParent(), roots) || addRoot(file, attrs, cache, roots, log) ? FileVisitResult.SKIP_SIBLINGS : FileVisitResult.CONTINUE;
+      }
+    });
+    return roots;
+  }
+
+  /**
+   * Returns the name of the package declared in the specified {@code .java} file, by lexing only as many of its leading bytes as
+   * are needed to pass the comments and annotations that may precede the {@code package} declaration.
+   *
+   * @param file The {@code .java} file.
+   * @return The name of the package declared in the specified file, {@code ""} if the file declares no package, or {@code null} if
+   *         the header of the file could not be lexed.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static String readPackage(final Path file) throws IOException {
+    final byte[] header = new byte[HEADER_SIZE];
+    int length = 0;
+    try (final InputStream in = Files.newInputStream(file)) {
+      for (int read; length < header.length && (read = in.read(header, length, header.length - length)) != -1; length += read); // [ST]
+    }
+
+    try {
+      return readPackage(header, length);
+    }
+    catch (final UnderflowException e) {
+      if (length < HEADER_SIZE)
+        return null;
+    }
+
+    final byte[] bytes = Files.readAllBytes(file);
+    try {
+      return readPackage(bytes, bytes.length);
+    }
+    catch (final UnderflowException e) {
+      return null;
+    }
+  }
+
+  private static String readPackage(final byte[] bytes, final int length) throws UnderflowException {
+    // Skip the UTF-8 byte order mark
+    int i = length >= 3 && bytes[0] == (byte)0xEF && bytes[1] == (byte)0xBB && bytes[2] == (byte)0xBF ? 3 : 0;
+    while (true) {
+      i = skipWhitespaceAndComments(bytes, i, length);
+      if (bytes[i] == '@') {
+        i = skipWhitespaceAndComments(bytes, i + 1, length);
+        if (isKeyword(bytes, i, length, "interface"))
+          return "";
+
+        i = skipQualifiedName(bytes, i, length, null);
+        i = skipWhitespaceAndComments(bytes, i, length);
+        if (bytes[i] == '(')
+          i = skipParentheses(bytes, i, length);
+      }
+      else if (isKeyword(bytes, i, length, "package")) {
+        final StringBuilder builder = new StringBuilder();
+        i = skipQualifiedName(bytes, i + 7, length, builder);
+        i = skipWhitespaceAndComments(bytes, i, length);
+        return bytes[i] == ';' && builder.length() > 0 ? builder.toString() : null;
+      }
+      else {
+        return Character.isJavaIdentifierStart(bytes[i]) ? "" : null;
+      }
+    }
+  }
+
+  private static boolean isKeyword(final byte[] bytes, final int i, final int length, final String keyword) throws UnderflowException {
+    final int end = i + keyword.length();
+    if (end >= length)
+      throw underflow;
+
+    for (int j = 0; j < keyword.length(); ++j)
+      if (bytes[i + j] != keyword.charAt(j))
+        return false;
+
+    return !Character.isJavaIdentifierPart(bytes[end]);
+  }
+
+  private static int skipWhitespaceAndComments(final byte[] bytes, int i, final int length) throws UnderflowException {
+    while (true) {
+      if (i >= length)
+        throw underflow;
+
+      final byte b = bytes[i];
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f') {
+        ++i;
+      }
+      else if (b == '/' && i + 1 < length && bytes[i + 1] == '/') {
+        for (i += 2; i < length && bytes[i] != '\n' && bytes[i] != '\r'; ++i);
+      }
+      else if (b == '/' && i + 1 < length && bytes[i + 1] == '*') {
+        for (i += 2; i + 1 < length && !(bytes[i] == '*' && bytes[i + 1] == '/'); ++i);
+        i += 2;
+      }
+      else {
+        return i;
+      }
+    }
+  }
+
+  private static int skipQualifiedName(final byte[] bytes, int i, final int length, final StringBuilder builder) throws UnderflowException {
+    while (true) {
+      i = skipWhitespaceAndComments(bytes, i, length);
+      if (!Character.isJavaIdentifierStart(bytes[i]))
+        return i;
+
+      for (; i < length && Character.isJavaIdentifierPart(bytes[i]); ++i)
+        if (builder != null)
+          builder.append((char)bytes[i]);
+
+      i = skipWhitespaceAndComments(bytes, i, length);
+      if (bytes[i] != '.')
+        return i;
+
+      if (builder != null)
+        builder.append('.');
+
+      ++i;
+    }
+  }
+
+  private static int skipParentheses(final byte[] bytes, int i, final int length) throws UnderflowException {
+    for (int depth = 0; i < length; ++i) {
+      final byte b = bytes[i];
+      if (b == '"' || b == '\'') {
+        for (++i; i < length && bytes[i] != b; ++i)
+          if (bytes[i] == '\\')
+            ++i;
+      }
+      else if (b == '/' && i + 1 < length && (bytes[i + 1] == '/' || bytes[i + 1] == '*')) {
+        i = skipWhitespaceAndComments(bytes, i, length) - 1;
+      }
+      else if (b == '(') {
+        ++depth;
+      }
+      else if (b == ')' && --depth == 0) {
+        return i + 1;
+      }
+    }
+
+    throw underflow;
+  }
+
+  private PackageScanner() {
+  }
+}
\ No newline at end of file
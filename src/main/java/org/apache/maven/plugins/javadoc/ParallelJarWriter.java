@@ -0,0 +1,248 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Writes a jar of the files in a set of directories, compressing the entries in parallel on the common {@link ForkJoinPool}, and
+ * writing them in order directly to the jar with a {@link ZipArchiveOutputStream} as raw, precompressed entries. The entries are
+ * sorted by name after the manifest, and are given the same timestamp, so that the jar is reproducible. The number of compressed
+ * entries that are held in memory is bounded by a multiple of the parallelism of the pool.
+ * <p>
+ * The {@code ConcurrentJarCreator} of plexus-archiver is not used, because it gathers the entries that are compressed by each of
+ * its threads in a separate scatter stream, so the order of the entries in the jar depends on the scheduling of the threads.
+ */
+final class ParallelJarWriter {
+  private static final int BATCH_SIZE = 256;
+  private static final long BATCH_BYTES = 1 << 20;
+
+  /** The DOS epoch, which is the earliest time that can be represented in a zip entry. */
+  static final long DEFAULT_TIME = Instant.parse("1980-01-01T00:00:00Z").toEpochMilli();
+
+  private static final class Entry {
+    private final String name;
+    private final int method;
+    private final long crc;
+    private final long size;
+    private final byte[] data;
+
+    private Entry(final String name, final int method, final long crc, final long size, final byte[] data) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.size = size;
+      this.data = data;
+    }
+  }
+
+  private static Entry compress(final String name, final byte[] bytes) {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+      final byte[] buffer = new byte[8192];
+      while (!deflater.finished()) // [ST]
+        out.write(buffer, 0, deflater.deflate(buffer));
+
+      // Store the entry if it is not made smaller by compression
+      return out.size() < bytes.length ? new Entry(name, ZipEntry.DEFLATED, crc.getValue(), bytes.length, out.toByteArray()) : new Entry(name, ZipEntry.STORED, crc.getValue(), bytes.length, bytes);
+    }
+    finally {
+      deflater.end();
+    }
+  }
+
+  private static Entry compress(final String name, final File file) {
+    if (name.endsWith("/"))
+      return new Entry(name, ZipEntry.STORED, 0, 0, new byte[0]);
+
+    try {
+      return compress(name, Files.readAllBytes(file.toPath()));
+    }
+    catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the time at which the default time zone shows the same date and time as UTC at the specified time, because the time of
+   * a zip entry is converted in the default time zone, and is to be written in UTC, so that the jar does not depend on the time zone
+   * of the build.
+   */
+  private static long toLocalTime(final long time) {
+    final long utcTime = Math.max(time, DEFAULT_TIME);
+    return utcTime - TimeZone.getDefault().getOffset(utcTime);
+  }
+
+  /**
+   * Returns the files of the specified directories that match the specified patterns, mapped by their entry names in sorted order.
+   * Directories are mapped with a trailing {@code '/'}, and precede their contents. If a name occurs in more than one directory, the
+   * file of the first directory is used.
+   *
+   * @param dirs The directories of the content of the jar.
+   * @param includes The include patterns, or {@code null} to include all files.
+   * @param excludes The exclude patterns, or {@code null} to exclude no files other than the default excludes.
+   * @return The files of the specified directories that match the specified patterns, mapped by their entry names.
+   */
+  static TreeMap<String,File> scan(final List<File> dirs, final String[] includes, final String[] excludes) {
+    final TreeMap<String,File> files = new TreeMap<>();
+    for (int i = 0, i$ = dirs.size(); i < i$; ++i) { // [RA]
+      final File dir = dirs.get(i);
+      if (!dir.isDirectory())
+        continue;
+
+      final DirectoryScanner scanner = new DirectoryScanner();
+      scanner.setBasedir(dir);
+      scanner.setIncludes(includes);
+      scanner.setExcludes(excludes);
+      scanner.addDefaultExcludes();
+      scanner.scan();
+      for (final String path : scanner.getIncludedDirectories()) // [A]
+        if (path.length() > 0)
+          files.putIfAbsent(path.replace(File.separatorChar, '/') + "/", new File(dir, path));
+
+      for (final String path : scanner.getIncludedFiles()) // [A]
+        files.putIfAbsent(path.replace(File.separatorChar, '/'), new File(dir, path));
+    }
+
+    return files;
+  }
+
+  /**
+   * Writes a jar with the specified manifest and files.
+   *
+   * @param jarFile The jar file.
+   * @param manifest The {@link Manifest}.
+   * @param files The files of the jar, mapped by their entry names in sorted order, as returned by
+   *          {@link #scan(List,String[],String[])}. The {@code META-INF/} and manifest entries are ignored, because they are
+   *          written from the {@code manifest}.
+   * @param time The timestamp of the entries, in milliseconds since the epoch.
+   * @return The number of entries in the jar.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static int write(final File jarFile, final Manifest manifest, final TreeMap<String,File> files, final long time) throws IOException {
+    final long localTime = toLocalTime(time);
+    final int window = 4 * ForkJoinPool.getCommonPoolParallelism();
+    int count = 0;
+
+    jarFile.getParentFile().mkdirs();
+    try (final ZipArchiveOutputStream out = new ZipArchiveOutputStream(jarFile)) {
+      writeEntry(out, new Entry("META-INF/", ZipEntry.STORED, 0, 0, new byte[0]), localTime);
+      final ByteArrayOutputStream manifestOut = new ByteArrayOutputStream();
+      manifest.write(manifestOut);
+      writeEntry(out, compress(JarFile.MANIFEST_NAME, manifestOut.toByteArray()), localTime);
+      count += 2;
+
+      final ArrayDeque<CompletableFuture<Entry[]>> pending = new ArrayDeque<>(window);
+      final Iterator<Map.Entry<String,File>> iterator = files.entrySet().iterator();
+      while (iterator.hasNext()) {
+        if (pending.size() == window)
+          count += writeEntries(out, join(pending.poll()), localTime);
+
+        // Batch the files to amortize the handoff to the pool, which dominates for the many small files of javadocs
+        final List<Map.Entry<String,File>> batch = new ArrayList<>(BATCH_SIZE);
+        for (long length = 0; iterator.hasNext() && batch.size() < BATCH_SIZE && length < BATCH_BYTES;) {
+          final Map.Entry<String,File> file = iterator.next();
+          // The entries of the manifest are written above, and must not be duplicated
+          if ("META-INF/".equals(file.getKey()) || JarFile.MANIFEST_NAME.equals(file.getKey()))
+            continue;
+
+          batch.add(file);
+          length += file.getValue().length();
+        }
+
+        pending.add(CompletableFuture.supplyAsync(() -> compress(batch), ForkJoinPool.commonPool()));
+      }
+
+      while (pending.size() > 0) // [ST]
+        count += writeEntries(out, join(pending.poll()), localTime);
+    }
+
+    return count;
+  }
+
+  private static Entry[] compress(final List<Map.Entry<String,File>> batch) {
+    final Entry[] entries = new Entry[batch.size()];
+    for (int i = 0; i < entries.length; ++i) { // [A]
+      final Map.Entry<String,File> file = batch.get(i);
+      entries[i] = compress(file.getKey(), file.getValue());
+    }
+
+    return entries;
+  }
+
+  private static int writeEntries(final ZipArchiveOutputStream out, final Entry[] batch, final long localTime) throws IOException {
+    for (final Entry entry : batch) // [A]
+      writeEntry(out, entry, localTime);
+
+    return batch.length;
+  }
+
+  private static Entry[] join(final CompletableFuture<Entry[]> future) throws IOException {
+    try {
+      return future.join();
+    }
+    catch (final CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException)
+        throw ((UncheckedIOException)e.getCause()).getCause();
+
+      throw e;
+    }
+  }
+
+  private static void writeEntry(final ZipArchiveOutputStream out, final Entry entry, final long localTime) throws IOException {
+    final ZipArchiveEntry zipEntry = new ZipArchiveEntry(entry.name);
+    zipEntry.setMethod(entry.method);
+    zipEntry.setCrc(entry.crc);
+    zipEntry.setSize(entry.size);
+    zipEntry.setCompressedSize(entry.data.length);
+    zipEntry.setTime(localTime);
+    out.addRawArchiveEntry(zipEntry, new ByteArrayInputStream(entry.data));
+  }
+
+  private ParallelJarWriter() {
+  }
+}
\ No newline at end of file
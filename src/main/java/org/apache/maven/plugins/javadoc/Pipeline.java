@@ -0,0 +1,181 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the first, I/O-bound stage of the runnables of modules ahead of their second, CPU-bound stage. The first stage of a module is
+ * started on a pool of {@code depth} daemon threads when it is submitted, as long as at most {@code depth} first stages are started
+ * but not yet consumed by {@link Stage#await()}, so that the results held in memory are bounded. The first stages beyond the depth
+ * are queued in the order of submission, and a queued stage that is awaited is run directly in the awaiting thread.
+ */
+final class Pipeline {
+  private final ArrayDeque<Stage> queue = new ArrayDeque<>();
+  private final int depth;
+  private ExecutorService executor;
+  private int outstanding;
+
+  /**
+   * The first stage of the runnable of a module.
+   */
+  final class Stage {
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Runnable runnable;
+    private boolean started;
+    private boolean consumed;
+
+    private Stage(final Runnable runnable) {
+      this.runnable = runnable;
+    }
+
+    private void run() {
+      try {
+        runnable.run();
+        completion.complete(null);
+      }
+      catch (final Throwable t) {
+        // An Error is also captured, because the stage would otherwise never complete, and its awaiting thread would hang
+        completion.completeExceptionally(t);
+      }
+    }
+
+    /**
+     * Returns a {@link CompletableFuture} that is completed with this stage once it has either completed or failed.
+     *
+     * @return A {@link CompletableFuture} that is completed with this stage once it has either completed or failed.
+     */
+    CompletableFuture<Stage> getCompletion() {
+      return completion.handle((final Void v, final Throwable t) -> this);
+    }
+
+    /**
+     * Blocks until this stage has completed, running it in the current thread if it has not been started. The slot of this stage in
+     * the pipeline is then released to the next queued stage.
+     *
+     * @return The number of milliseconds spent waiting on this stage to be completed by the pool.
+     * @throws RuntimeException If this stage has failed.
+     * @throws Error If this stage has failed with an {@link Error}.
+     */
+    long await() {
+      final boolean inline;
+      synchronized (Pipeline.this) {
+        if (consumed)
+          throw new IllegalStateException("Stage was already consumed");
+
+        consumed = true;
+        inline = !started;
+        if (inline) {
+          started = true;
+          queue.remove(this);
+        }
+      }
+
+      if (inline)
+        run();
+
+      final long start = System.currentTimeMillis();
+      try {
+        completion.join();
+      }
+      catch (final CompletionException e) {
+        if (e.getCause() instanceof Error)
+          throw (Error)e.getCause();
+
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException)e.getCause() : e;
+      }
+      finally {
+        if (!inline)
+          release();
+      }
+
+      return inline ? 0 : System.currentTimeMillis() - start;
+    }
+  }
+
+  /**
+   * Creates a new {@link Pipeline} with the specified depth.
+   *
+   * @param depth The maximum number of first stages that are started ahead of their second stages.
+   * @throws IllegalArgumentException If {@code depth} is less than 1.
+   */
+  Pipeline(final int depth) {
+    if (depth < 1)
+      throw new IllegalArgumentException("depth (" + depth + ") must be greater than 0");
+
+    this.depth = depth;
+  }
+
+  /**
+   * Submits the specified runnable as the first stage of a module, which is started on the pool if fewer than {@code depth} stages
+   * are outstanding, and is queued otherwise.
+   *
+   * @param runnable The runnable of the first stage.
+   * @return The {@link Stage}, to be awaited before the second stage of the module is run.
+   */
+  synchronized Stage submit(final Runnable runnable) {
+    final Stage stage = new Stage(runnable);
+    queue.add(stage);
+    drain();
+    return stage;
+  }
+
+  private synchronized void release() {
+    --outstanding;
+    drain();
+  }
+
+  private void drain() {
+    while (outstanding < depth && queue.size() > 0) {
+      final Stage stage = queue.poll();
+      stage.started = true;
+      ++outstanding;
+      if (executor == null)
+        executor = Executors.newFixedThreadPool(depth, (final Runnable r) -> {
+          final Thread thread = new Thread(r, "javadocio-prepare");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+      executor.execute(stage::run);
+    }
+  }
+
+  /**
+   * Returns the number of stages that are started but not yet consumed.
+   *
+   * @return The number of stages that are started but not yet consumed.
+   */
+  synchronized int getOutstanding() {
+    return outstanding;
+  }
+
+  /**
+   * Shuts down the pool of this pipeline, after which it is recreated on the next submission. Stages that are not yet started are
+   * left to be run by their awaiting threads.
+   */
+  synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+}
\ No newline at end of file
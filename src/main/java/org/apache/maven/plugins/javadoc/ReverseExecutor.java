@@ -16,118 +16,483 @@
 
 package org.apache.maven.plugins.javadoc;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.maven.model.Dependency;
 import org.apache.maven.project.MavenProject;
 
+/**
+ * Runs the runnables submitted for the projects of a reactor in reverse order, whereby the runnable of a project is run only after
+ * the runnables of all of its modules have been run. By default the runnables are run synchronously in the thread that submits the
+ * last module of a project. If more than one thread is configured with {@link #setThreads(int)}, the runnables are run on a pool of
+ * worker threads instead, whereby a runnable is started only after the runnables of the project's modules and of the project's
+ * dependencies in the reactor have completed.
+ */
 public class ReverseExecutor {
-  private final Module rootModule = new Module();
+  private Module rootModule = new Module();
+  private Node rootNode = new Node(0);
+  private final Map<String,Module> keyToModule = new HashMap<>();
+  private final ArrayList<CompletableFuture<Void>> completions = new ArrayList<>();
+  private AtomicReference<IllegalStateException> failure = new AtomicReference<>();
+  private boolean reported;
+  private ExecutorService executor;
+  private Pipeline pipeline;
+  private int threads = 1;
+  private int pipelineDepth;
+  private Node rootDir;
+
+  /**
+   * The completions and the worker threads of a reactor that has been reset, which are awaited and shut down outside of the monitor
+   * of the {@link ReverseExecutor}, so that the build threads that submit or await other projects are not blocked meanwhile.
+   */
+  private static final class Teardown {
+    private final CompletableFuture<?>[] completions;
+    private final ExecutorService executor;
+    private final Pipeline pipeline;
+    private final AtomicReference<IllegalStateException> failure;
+    private final boolean reported;
+
+    private Teardown(final CompletableFuture<?>[] completions, final ExecutorService executor, final Pipeline pipeline, final AtomicReference<IllegalStateException> failure, final boolean reported) {
+      this.completions = completions;
+      this.executor = executor;
+      this.pipeline = pipeline;
+      this.failure = failure;
+      this.reported = reported;
+    }
+
+    /**
+     * Blocks until the runnables of the reactor have completed, and then shuts down its worker threads.
+     *
+     * @return The failure of a runnable of the reactor that has not been reported, or {@code null} if there is none.
+     */
+    private IllegalStateException run() {
+      try {
+        CompletableFuture.allOf(completions).join();
+      }
+      catch (final CompletionException e) {
+      }
+
+      if (executor != null)
+        executor.shutdown();
+
+      if (pipeline != null)
+        pipeline.shutdown();
+
+      return reported ? null : failure.get();
+    }
+  }
+
+  private static String getKey(final String groupId, final String artifactId, final String version) {
+    return groupId + ":" + artifactId + ":" + version;
+  }
+
+  /**
+   * A node of the trie of the directories of the submitted projects, keyed by the segments of their absolute paths.
+   */
+  private static final class Node {
+    private final int depth;
+    private Map<String,Node> children;
+    private Module module;
+
+    private Node(final int depth) {
+      this.depth = depth;
+    }
+
+    private Node child(final String segment) {
+      if (children == null)
+        children = new HashMap<>();
+
+      Node child = children.get(segment);
+      if (child == null)
+        children.put(segment, child = new Node(depth + 1));
+
+      return child;
+    }
+  }
+
+  /**
+   * Returns the {@link Node} of the specified absolute path, which is created along with its ancestors if it does not exist.
+   *
+   * @param path The absolute path.
+   * @return The {@link Node} of the specified absolute path.
+   */
+  private Node getNode(final String path) {
+    Node node = rootNode;
+    for (int start = 0, end, length = path.length(); start < length; start = end + 1) {
+      end = path.indexOf(File.separatorChar, start);
+      if (end == -1)
+        end = length;
+
+      if (end > start)
+        node = node.child(path.substring(start, end));
+    }
+
+    return node;
+  }
 
   private class Module {
-    private final Map<String,Module> modules = new HashMap<>();
+    private final Set<String> moduleNames;
+    private final ArrayList<CompletableFuture<Void>> moduleCompletions = new ArrayList<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
     private final MavenProject project;
+    private final Runnable prepare;
     private final Runnable runnable;
     private final String name;
     private Module parent;
+    private int pending;
+    private boolean scheduled;
 
-    private Module(final MavenProject project, final Runnable runnable) {
+    private Module(final MavenProject project, final String basedir, final String parentBasedir, final Runnable prepare, final Runnable runnable) {
       this.project = Objects.requireNonNull(project);
+      this.prepare = prepare;
       this.runnable = runnable;
-      if (project.hasParent() && project.getParent().getBasedir() != null && project.getBasedir().getAbsolutePath().startsWith(project.getParent().getBasedir().getAbsolutePath()))
-        this.name = project.getBasedir().getAbsolutePath().substring(project.getParent().getBasedir().getAbsolutePath().length() + 1);
+      if (parentBasedir != null && basedir.startsWith(parentBasedir))
+        this.name = basedir.substring(parentBasedir.length() + 1);
       else
         this.name = project.getBasedir().getName();
 
       final List<String> modules = project.getModules();
-      if (modules.size() > 0)
-        for (final String module : modules) // [L]
-          this.modules.put(module, null);
+      this.moduleNames = modules.isEmpty() ? Collections.emptySet() : new HashSet<>(modules);
+      this.pending = moduleNames.size();
     }
 
     private Module() {
       this.project = null;
+      this.prepare = null;
       this.runnable = null;
       this.name = null;
+      this.moduleNames = null;
     }
 
     private void addModule(final Module module) {
-      if (project != null && !modules.containsKey(module.name))
-        throw new IllegalStateException("Module not found: " + module.name + " in " + modules.keySet());
+      if (project != null && !moduleNames.contains(module.name))
+        throw new IllegalStateException("Module not found: " + module.name + " in " + moduleNames);
 
       if (module.parent != null)
         throw new IllegalStateException("Parent was already set");
 
       module.parent = this;
-      modules.put(module.name, module);
+      if (project == null)
+        ++pending;
     }
 
-    private Module processModule(final String qualifiedName, final boolean remove) {
-      String name = qualifiedName;
-      while (true) {
-        final Module module = remove ? modules.remove(name) : modules.get(name);
-        if (module != null) {
-          if (name.equals(qualifiedName)) {
-            if (remove) {
-              if (module.modules.size() > 0)
-                throw new IllegalStateException("Expected to remove empty sub-module");
+    private boolean isDescendantOf(final Module module) {
+      for (Module parent = this.parent; parent != null; parent = parent.parent)
+        if (parent == module)
+          return true;
 
-              module.runnable.run();
-              if (parent != null && modules.size() == 0)
-                parent.removeModule(this.name);
-            }
+      return false;
+    }
 
-            return module;
-          }
+    @Override
+    public String toString() {
+      return name + ": " + pending + " pending of " + moduleNames;
+    }
+  }
 
-          return module.processModule(qualifiedName.substring(name.length() + 1), remove);
-        }
+  /**
+   * Schedules the runnable of the specified {@link Module}, whose modules have all been scheduled, and then that of each ancestor
+   * whose last pending module this completes.
+   *
+   * @param module The {@link Module}.
+   */
+  private void complete(Module module) {
+    for (Module parent; module != rootModule; module = parent) {
+      execute(module);
+      parent = module.parent;
+      parent.moduleCompletions.add(module.completion);
+      if (--parent.pending > 0)
+        return;
+    }
+  }
+
+  /**
+   * Sets the number of worker threads on which the submitted runnables are run. If {@code threads} is {@code 1} or less, the
+   * runnables are run synchronously in the submitting thread.
+   *
+   * @param threads The number of worker threads.
+   */
+  public synchronized void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * Sets the maximum number of prepare runnables that are run, or have completed, ahead of their runnables, on a pool of as many
+   * threads, when the runnables are run on worker threads. If {@code pipelineDepth} is {@code 0}, the prepare runnable of a project
+   * is run on the worker thread of its runnable.
+   *
+   * @param pipelineDepth The maximum number of prepare runnables that are run ahead of their runnables.
+   */
+  public synchronized void setPipelineDepth(final int pipelineDepth) {
+    this.pipelineDepth = pipelineDepth;
+  }
+
+  private void execute(final Module module) {
+    module.scheduled = true;
+    if (executor == null && threads > 1)
+      executor = Executors.newFixedThreadPool(threads, (final Runnable r) -> {
+        final Thread thread = new Thread(r, "javadocio-module");
+        thread.setDaemon(true);
+        return thread;
+      });
 
-        final int slash = name.lastIndexOf('/');
-        if (slash == -1)
-          throw new IllegalStateException("Module (qualified '" + qualifiedName + "') not found: " + name + " in " + modules.keySet());
+    if (executor == null) {
+      try {
+        if (module.prepare != null)
+          module.prepare.run();
 
-        name = name.substring(0, slash);
+        module.runnable.run();
+      }
+      catch (final RuntimeException e) {
+        throw newFailure(module, e);
       }
+
+      module.completion.complete(null);
+      return;
     }
 
-    public Module removeModule(final String qualifiedName) {
-      return processModule(qualifiedName, true);
+    final ArrayList<CompletableFuture<Void>> prerequisites = new ArrayList<>(module.moduleCompletions);
+    for (final Dependency dependency : module.project.getDependencies()) { // [L]
+      final Module prerequisite = keyToModule.get(getKey(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion()));
+      // A dependency on an ancestor cannot be awaited, because the ancestor itself awaits this module
+      if (prerequisite != null && prerequisite != module && !module.isDescendantOf(prerequisite))
+        prerequisites.add(prerequisite.completion);
     }
 
-    public Module getModule(final String qualifiedName) {
-      return processModule(qualifiedName, false);
+    final CompletableFuture<Void> ready = CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture<?>[prerequisites.size()]));
+    // The prepare runnable is run on the pool of the pipeline, so that the runnable takes a worker thread only once it is prepared
+    final CompletableFuture<Pipeline.Stage> prepared;
+    if (module.prepare != null && pipelineDepth > 0) {
+      if (pipeline == null)
+        pipeline = new Pipeline(pipelineDepth);
+
+      final Pipeline pipeline = this.pipeline;
+      prepared = ready.thenCompose((final Void v) -> pipeline.submit(module.prepare).getCompletion());
+    }
+    else {
+      prepared = ready.thenApply((final Void v) -> null);
     }
 
-    @Override
-    public String toString() {
-      return name + ": " + modules;
+    final AtomicReference<IllegalStateException> failure = this.failure;
+    prepared.whenCompleteAsync((final Pipeline.Stage stage, final Throwable t) -> {
+      if (t != null) {
+        module.completion.completeExceptionally(t);
+        return;
+      }
+
+      try {
+        if (stage != null)
+          stage.await();
+        else if (module.prepare != null)
+          module.prepare.run();
+
+        module.runnable.run();
+        module.completion.complete(null);
+      }
+      catch (final Throwable e) {
+        // An Error is also captured, because the module would otherwise never complete, and the reactor would hang
+        failure.compareAndSet(null, newFailure(module, e));
+
+        module.completion.completeExceptionally(e);
+      }
+    }, executor);
+    completions.add(module.completion);
+  }
+
+  /**
+   * Returns the {@link IllegalStateException} that attributes the specified failure to the project of the provided {@link Module}.
+   *
+   * @param module The {@link Module} whose runnable has failed.
+   * @param e The failure.
+   * @return The {@link IllegalStateException} that attributes the failure to the project of the module.
+   */
+  private static IllegalStateException newFailure(final Module module, final Throwable e) {
+    return new IllegalStateException("Runnable of " + module.project.getId() + " has failed: " + e.getMessage(), e);
+  }
+
+  /**
+   * Throws the failure of a runnable of this reactor, if one has been recorded and has not yet been reported. The failure is
+   * reported only once, and the state of the reactor is kept, so that the runnables of the other projects still run if the build
+   * continues, as it does with {@code --fail-at-end}.
+   *
+   * @throws IllegalStateException If a runnable of this reactor has failed, and the failure has not yet been reported.
+   */
+  private void checkFailure() {
+    final IllegalStateException failure = this.failure.get();
+    if (failure != null && !reported) {
+      reported = true;
+      throw failure;
     }
   }
 
-  private String rootDir;
+  /**
+   * Cancels the runnables of the projects that have not been scheduled, and clears the state of the submitted projects, so that this
+   * instance can be reused for a following reactor, such as that of a later session in the same JVM.
+   *
+   * @return The {@link Teardown} of the reset reactor, which is to be run outside of the monitor of this instance.
+   */
+  private Teardown reset() {
+    for (final Module module : keyToModule.values()) // [C]
+      if (!module.scheduled)
+        module.completion.cancel(false);
 
-  public void submit(final MavenProject project, final Runnable runnable) {
-    final Module module = new Module(project, runnable);
-    final String parentPath;
-    if (project.hasParent() && project.getParent().getBasedir() != null)
-      parentPath = project.getParent().getBasedir().getAbsolutePath();
-    else
-      parentPath = project.getBasedir().getParentFile().getAbsolutePath();
+    final Teardown teardown = new Teardown(completions.toArray(new CompletableFuture<?>[completions.size()]), executor, pipeline, failure, reported);
+    executor = null;
+    pipeline = null;
+    rootModule = new Module();
+    rootNode = new Node(0);
+    rootDir = null;
+    keyToModule.clear();
+    completions.clear();
+    failure = new AtomicReference<>();
+    reported = false;
+    return teardown;
+  }
+
+  /**
+   * Blocks until the runnable submitted for the specified {@link MavenProject} has completed, if the runnable has already been
+   * scheduled to run on a worker thread. Otherwise, this method returns immediately.
+   *
+   * @param project The {@link MavenProject}.
+   * @throws IllegalStateException If the runnable of the project, or of any of its prerequisites, has failed.
+   */
+  public void await(final MavenProject project) {
+    final Module module;
+    synchronized (this) {
+      module = keyToModule.get(getKey(project.getGroupId(), project.getArtifactId(), project.getVersion()));
+      if (module == null || !module.scheduled)
+        return;
+    }
 
+    try {
+      module.completion.join();
+    }
+    catch (final CompletionException e) {
+      synchronized (this) {
+        checkFailure();
+      }
+
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Submits the specified {@link Runnable} to be run for the provided {@link MavenProject} once the runnables of all of the
+   * project's modules have been run.
+   *
+   * @param project The {@link MavenProject}.
+   * @param runnable The {@link Runnable} to run for the project.
+   * @return {@code true} if this submission has completed the runnables of all submitted projects, otherwise {@code false}.
+   * @throws IllegalStateException If a runnable has failed.
+   */
+  public boolean submit(final MavenProject project, final Runnable runnable) {
+    return submit(project, null, runnable);
+  }
+
+  /**
+   * Submits the specified runnables for the specified {@link MavenProject}, whereby {@code prepare} is run before {@code runnable}.
+   * If the runnables are run on worker threads, {@code prepare} is run in a pipeline with the depth set with
+   * {@link #setPipelineDepth(int)} once the prerequisites of the project have completed, and {@code runnable} is scheduled on a
+   * worker thread only once {@code prepare} has completed, so that an I/O-bound {@code prepare} overlaps the CPU-bound runnables of
+   * other projects instead of occupying a worker thread.
+   *
+   * @param project The {@link MavenProject}.
+   * @param prepare The {@link Runnable} to run for the project before {@code runnable}, or {@code null}.
+   * @param runnable The {@link Runnable} to run for the project.
+   * @return {@code true} if this submission has completed the runnables of all submitted projects, otherwise {@code false}.
+   * @throws IllegalStateException If a runnable has failed, whereby the failure names the project of the failed runnable. The
+   *           failure is thrown only once, and the runnables of the other projects continue to be run.
+   */
+  public boolean submit(final MavenProject project, final Runnable prepare, final Runnable runnable) {
+    final String key = getKey(project.getGroupId(), project.getArtifactId(), project.getVersion());
+    final Teardown previous;
+    synchronized (this) {
+      // A project that was already submitted belongs to a new reactor, because the previous one did not complete
+      previous = keyToModule.containsKey(key) ? reset() : null;
+    }
+
+    if (previous != null)
+      previous.run();
+
+    final Teardown teardown;
+    synchronized (this) {
+      if (!register(key, project, prepare, runnable))
+        return false;
+
+      teardown = reset();
+    }
+
+    final IllegalStateException failure = teardown.run();
+    if (failure != null)
+      throw failure;
+
+    return true;
+  }
+
+  /**
+   * Registers the specified runnables for the provided {@link MavenProject}, and schedules the runnables of the projects that it
+   * completes.
+   *
+   * @param key The key of the project.
+   * @param project The {@link MavenProject}.
+   * @param prepare The {@link Runnable} to run for the project before {@code runnable}, or {@code null}.
+   * @param runnable The {@link Runnable} to run for the project.
+   * @return {@code true} if this registration has completed the runnables of all registered projects, otherwise {@code false}.
+   * @throws IllegalStateException If a runnable has failed, and the failure has not yet been reported.
+   */
+  private boolean register(final String key, final MavenProject project, final Runnable prepare, final Runnable runnable) {
+    final String basedir = project.getBasedir().getAbsolutePath();
+    final String parentBasedir = project.hasParent() && project.getParent().getBasedir() != null ? project.getParent().getBasedir().getAbsolutePath() : null;
+    final Module module = new Module(project, basedir, parentBasedir, prepare, runnable);
+    keyToModule.put(key, module);
+    final String parentPath = parentBasedir != null ? parentBasedir : project.getBasedir().getParentFile().getAbsolutePath();
+    final Node parentNode = getNode(parentPath);
     if (rootDir == null)
-      rootDir = parentPath + "/";
+      rootDir = parentNode;
 
     final Module parent;
-    if (parentPath.length() <= rootDir.length())
+    if (parentNode.depth <= rootDir.depth)
       parent = rootModule;
+    else if (parentNode.module != null)
+      parent = parentNode.module;
     else
-      parent = rootModule.getModule(parentPath.substring(rootDir.length()));
+      throw new IllegalStateException("Module (qualified '" + parentPath + "') not found: " + module.name);
 
     parent.addModule(module);
-    if (project.getModules().isEmpty())
-      parent.removeModule(project.getBasedir().getName());
+    getNode(basedir).module = module;
+    if (module.pending > 0) {
+      checkFailure();
+      return false;
+    }
+
+    try {
+      complete(module);
+    }
+    catch (final IllegalStateException e) {
+      // The runnables are run synchronously, and the failure is thrown by the runnable of the last scheduled module
+      failure.compareAndSet(null, e);
+      reported = true;
+      throw e;
+    }
+
+    if (rootModule.pending > 0) {
+      checkFailure();
+      return false;
+    }
+
+    return true;
   }
 }
\ No newline at end of file
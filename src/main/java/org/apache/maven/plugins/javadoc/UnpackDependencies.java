@@ -20,19 +20,36 @@ import static org.apache.maven.plugins.javadoc.MojoUtil.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -41,18 +58,36 @@ import org.apache.maven.plugins.dependency.AbstractDependencyMojo;
 import org.apache.maven.plugins.dependency.fromDependencies.AbstractDependencyFilterMojo;
 import org.apache.maven.plugins.dependency.fromDependencies.UnpackDependenciesMojo;
 import org.apache.maven.plugins.dependency.utils.DependencyStatusSets;
+import org.apache.maven.plugins.dependency.utils.DependencyUtil;
+import org.apache.maven.plugins.dependency.utils.filters.MarkerFileFilter;
+import org.apache.maven.plugins.dependency.utils.markers.DefaultFileMarkerHandler;
+import org.apache.maven.plugins.dependency.utils.translators.ClassifierTypeTranslator;
+import org.apache.maven.plugins.javadoc.MojoUtil.Download;
 import org.apache.maven.plugins.javadoc.options.OfflineLink;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.settings.Settings;
+import org.apache.maven.shared.artifact.ArtifactCoordinate;
+import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
 import org.apache.maven.shared.artifact.resolve.ArtifactResolver;
+import org.apache.maven.shared.artifact.resolve.ArtifactResolverException;
+import org.apache.maven.shared.artifact.resolve.ArtifactResult;
 import org.apache.maven.shared.dependencies.resolve.DependencyResolver;
+import org.apache.maven.shared.dependencies.resolve.DependencyResolverException;
 import org.apache.maven.shared.repository.RepositoryManager;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 
 class UnpackDependencies extends UnpackDependenciesMojo {
-  private static final HashMap<Artifact,Set<OfflineLink>> artifactToOfflineLinks = new HashMap<>();
-  private static final HashMap<Artifact,OfflineLink> artifactToDependencyLink = new HashMap<>();
+  private static final ConcurrentHashMap<Artifact,CompletableFuture<Set<OfflineLink>>> artifactToOfflineLinks = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Artifact,CompletableFuture<OfflineLink>> artifactToDependencyLink = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String,CompletableFuture<Artifact>> javadocArtifacts = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String,CompletableFuture<Integer>> extractedJars = new ConcurrentHashMap<>();
+  private static final Set<String> unlinked = ConcurrentHashMap.newKeySet();
+  // The dependencies that were left unlinked in offline mode in the current session, which are not resolved again by later modules
+  private static final Set<Artifact> unresolved = ConcurrentHashMap.newKeySet();
+  private static MavenSession prefetchSession;
+  private static final String[] packageListNames = {"package-list", "element-list"};
   private static final boolean reportError;
 
   static {
@@ -64,6 +99,12 @@ class UnpackDependencies extends UnpackDependenciesMojo {
 
   static ArrayList<OfflineLink> execute(final DefaultMojo mojo, final Settings settings, final MavenProject project, final MavenSession session, final List<MavenProject> reactorProjects, final ArchiverManager archiverManager, final ArtifactResolver artifactResolver, final DependencyResolver dependencyResolver, final RepositoryManager repositoryManager, final ProjectBuilder projectBuilder, final ArtifactHandlerManager artifactHandlerManager) throws MojoExecutionException, MojoFailureException {
     final UnpackDependencies unpackDependencies = new UnpackDependencies(mojo, settings, project, session, reactorProjects, archiverManager, artifactResolver, dependencyResolver, repositoryManager, projectBuilder, artifactHandlerManager);
+    if (isFirstUse(session)) {
+      unresolved.clear();
+      unpackDependencies.importLinkBundle();
+      unpackDependencies.prefetch(reactorProjects);
+    }
+
     unpackDependencies.execute();
     final ArrayList<OfflineLink> offlineLinks = new ArrayList<>(unpackDependencies.offlineLinks);
     // Remove the 1st entry, as it is the entry for this project itself
@@ -81,21 +122,52 @@ class UnpackDependencies extends UnpackDependenciesMojo {
     return offlineLinks;
   }
 
+  /**
+   * Logs the statistics of the {@link LinkCache} of the local repository in the specified {@link Settings}, and the dependencies that
+   * were left unlinked in offline mode. This method is meant to be called once all modules of the reactor have been executed.
+   *
+   * @param log The {@link Log}.
+   * @param settings The {@link Settings}.
+   */
+  static void report(final Log log, final Settings settings) {
+    LinkCache.of(new File(settings.getLocalRepository())).reportMissing(log);
+    HostHealth.report(log);
+    if (unlinked.size() > 0) {
+      final ArrayList<String> ids = new ArrayList<>(unlinked);
+      unlinked.clear();
+      Collections.sort(ids);
+      log.warn("Offline: " + ids.size() + " dependencies left unlinked, for which no javadocs are in the local repository:");
+      for (int i = 0, i$ = ids.size(); i < i$; ++i) // [RA]
+        log.warn("  " + ids.get(i));
+    }
+  }
+
   private final DefaultMojo mojo;
+  private final Metrics metrics;
+  private final LinkCache linkCache;
+  private final MarkerIndex markerIndex;
   private final Set<OfflineLink> offlineLinks;
   private final boolean offline;
   private final MavenProject project;
 
   private UnpackDependencies(final DefaultMojo mojo, final Settings settings, final MavenProject project, final MavenSession session, final List<MavenProject> reactorProjects, final ArchiverManager archiverManager, final ArtifactResolver artifactResolver, final DependencyResolver dependencyResolver, final RepositoryManager repositoryManager, final ProjectBuilder projectBuilder, final ArtifactHandlerManager artifactHandlerManager) {
     this.mojo = mojo;
+    this.metrics = mojo.getMetrics();
     setLog(new FilterLog(mojo.getLog()) {
       @Override
       public boolean isInfoEnabled() {
         return false;
       }
     });
-    this.offlineLinks = addModules(getModelArtifact(new File(project.getBasedir(), "pom.xml")));
+    this.linkCache = LinkCache.of(new File(settings.getLocalRepository()));
+    this.markerIndex = mojo.isMarkerIndex() ? MarkerIndex.of(new File(settings.getLocalRepository())) : null;
+    // Set before the modules are added, because the javadoc.io probes of the modules must not be made in offline mode
     this.offline = settings.isOffline();
+    setOffline(offline);
+    final long start = metrics.start();
+    // Copy the links of the modules, because the links of the dependencies are added to this set
+    this.offlineLinks = new LinkedHashSet<>(addModules(getModelArtifact(new File(project.getBasedir(), "pom.xml"))));
+    metrics.stop("addModules", start);
     this.project = project;
     this.session = session;
     setField(AbstractDependencyMojo.class, this, "remoteRepositories", project.getRemoteArtifactRepositories());
@@ -114,39 +186,78 @@ class UnpackDependencies extends UnpackDependenciesMojo {
     this.markersDirectory = new File(settings.getLocalRepository(), "dependency-maven-plugin-markers");
   }
 
+  /**
+   * Returns the value of the specified key in the specified map, or computes it with the specified function if absent. Concurrent
+   * callers for the same key wait for the single computation in flight, instead of computing the value again. The map is not locked
+   * during the computation, so callers for other keys proceed in parallel. A computation that fails, or returns {@code null}, is
+   * removed from the map, so that it is retried by the next caller.
+   *
+   * @param <K> The type of the key.
+   * @param <V> The type of the value.
+   * @param map The map of keys to their values, or to the computations in flight.
+   * @param key The key, such as an artifact.
+   * @param function The function that computes the value.
+   * @param metrics The {@link Metrics} in which waits for a computation in flight are counted.
+   * @return The value of the specified key, which may be {@code null}.
+   */
+  static <K,V>V resolveOnce(final ConcurrentHashMap<K,CompletableFuture<V>> map, final K key, final Function<K,V> function, final Metrics metrics) {
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    final CompletableFuture<V> existing = map.putIfAbsent(key, future);
+    if (existing != null) {
+      if (!existing.isDone())
+        metrics.count("linkResolutionWaits", 1);
+
+      try {
+        return existing.join();
+      }
+      catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException)e.getCause();
+
+        throw e;
+      }
+    }
+
+    try {
+      final V value = function.apply(key);
+      if (value == null)
+        map.remove(key, future);
+
+      future.complete(value);
+      return value;
+    }
+    catch (final RuntimeException | Error e) {
+      map.remove(key, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+  }
+
   private Set<OfflineLink> addModules(final Model model) {
     final Artifact artifact = new DefaultArtifact(model.getGroupId() != null ? model.getGroupId() : model.getParent().getGroupId(), model.getArtifactId(), model.getVersion() != null ? model.getVersion() : model.getParent().getVersion(), "compile", "jar", null, new DefaultArtifactHandler());
-    final Set<OfflineLink> links = artifactToOfflineLinks.get(artifact);
-    if (links != null)
-      return links;
-
-    if ("pom".equalsIgnoreCase(model.getPackaging())) {
-      final List<String> modules = model.getModules();
-      final Set<OfflineLink> moduleLinks;
-      if (modules.size() == 0) {
-        moduleLinks = Collections.EMPTY_SET;
-      }
-      else {
-        moduleLinks = new LinkedHashSet<>();
+    return resolveOnce(artifactToOfflineLinks, artifact, (final Artifact a) -> {
+      if ("pom".equalsIgnoreCase(model.getPackaging())) {
+        final List<String> modules = model.getModules();
+        if (modules.size() == 0)
+          return Collections.emptySet();
+
+        final Set<OfflineLink> moduleLinks = new LinkedHashSet<>();
         for (final String module : modules) { // [L]
           final File path = new File(model.getProjectDirectory(), module);
           final Model submodule = getModelArtifact(new File(path, "pom.xml"));
           moduleLinks.addAll(addModules(submodule));
         }
-      }
 
-      artifactToOfflineLinks.put(artifact, moduleLinks);
-      return moduleLinks;
-    }
+        return Collections.unmodifiableSet(moduleLinks);
+      }
 
-    final OfflineLink offlineLink = new OfflineLink();
-    offlineLink.setUrl(getJavadocIoLink(artifact));
-    final File apiDocs = new File(model.getPomFile().getParentFile(), "target/" + mojo.getApiDocsTargetPath() + "/");
-    offlineLink.setLocation(apiDocs.getAbsolutePath());
-    final Set<OfflineLink> moduleLinks = new LinkedHashSet<>();
-    moduleLinks.add(offlineLink);
-    artifactToOfflineLinks.put(artifact, moduleLinks);
-    return moduleLinks;
+      final OfflineLink offlineLink = new OfflineLink();
+      offlineLink.setUrl(getJavadocIoLink(a));
+      probeJavadocIo(a);
+      final File apiDocs = new File(model.getPomFile().getParentFile(), "target/" + mojo.getApiDocsTargetPath() + "/");
+      offlineLink.setLocation(apiDocs.getAbsolutePath());
+      return Collections.singleton(offlineLink);
+    }, metrics);
   }
 
   @Override
@@ -159,29 +270,100 @@ class UnpackDependencies extends UnpackDependenciesMojo {
     if (!filePath.endsWith("-javadoc.jar"))
       return null;
 
-    return getModelUrl(new File(filePath.substring(filePath.length() - 12) + ".pom")) + "apidocs/";
+    final String url = getModelUrl(new File(filePath.substring(0, filePath.length() - 12) + ".pom"));
+    return url == null ? null : url + "apidocs/";
+  }
+
+  private static String getJavadocIoLink(final Artifact artifact) {
+    return "https://static.javadoc.io/" + artifact.getGroupId() + "/" + artifact.getArtifactId() + "/" + artifact.getVersion().replace("-SNAPSHOT", "") + "/";
   }
 
-  private String getJavadocIoLink(final Artifact artifact) {
-    final String version = artifact.getVersion().replace("-SNAPSHOT", "");
-    final String url ="https://static.javadoc.io/" + artifact.getGroupId() + "/" + artifact.getArtifactId() + "/" + version + "/";
-    // Trigger javadoc.io to start downloading the javadocs if not yet available
-    if (!offline && !exists(url + "index.html"))
-      exists("https://www.javadoc.io/doc/" + artifact.getGroupId() + "/" + artifact.getArtifactId() + "/" + version + "/");
+  /**
+   * Probes javadoc.io for the docs of the specified artifact, and triggers javadoc.io to start downloading the docs if they are not
+   * yet available. Artifacts that were recorded as missing in the {@link LinkCache} less than {@link DefaultMojo#getMissingLinkTtl()}
+   * hours ago, and artifacts with a link in the {@link LinkCache}, are not probed, so that a warm build makes no blocking request. A
+   * link that is older than {@link DefaultMojo#getLinkCacheTtl()} hours is revalidated in the background. A probe that fails with an I/O error is logged, and does not
+   * exclude javadoc.io, because the error does not mean that the docs are missing.
+   *
+   * @param artifact The artifact.
+   * @return {@code false} if the docs of the specified artifact are known to be missing on javadoc.io, otherwise {@code true}.
+   */
+  private boolean probeJavadocIo(final Artifact artifact) {
+    if (offline)
+      return true;
+
+    final String key = LinkCache.getKey(artifact);
+    final LinkCache.Entry entry = linkCache.get(key);
+    if (entry != null) {
+      metrics.count("probeCacheHits", 1);
+      // A stale entry is served, and revalidated in the background; an entry with a downloaded package-list is revalidated with it
+      if (entry.getPackageListUrl() == null)
+        linkCache.reprobeIfStale(key, entry, TimeUnit.HOURS.toMillis(mojo.getLinkCacheTtl()), getLog());
+
+      return true;
+    }
+
+    if (linkCache.isMissing(key, TimeUnit.HOURS.toMillis(mojo.getMissingLinkTtl()))) {
+      metrics.count("missingLinkHits", 1);
+      return false;
+    }
+
+    final long start = metrics.start();
+    final String url = getJavadocIoLink(artifact);
+    final boolean exists;
+    try {
+      exists = head(url + "index.html") < 300;
+    }
+    catch (final IOException e) {
+      // javadoc.io is unreachable, or its circuit is open, which does not mean that the artifact is missing
+      metrics.count("probeErrors", 1);
+      // An open circuit is reported once by HostHealth, rather than for each artifact
+      if (e instanceof HostHealth.CircuitOpenException)
+        getLog().debug("Unable to probe " + url + ": " + e.getMessage());
+      else
+        getLog().warn("Unable to probe " + url + ": " + e.getMessage());
+
+      metrics.stop("probe", start);
+      return true;
+    }
+    finally {
+      metrics.count("httpRequests", 1);
+    }
+
+    linkCache.setMissing(key, !exists);
+    // Record the link of the docs, which is replaced by the entry of a resolved dependency with its package-list
+    if (exists)
+      linkCache.put(key, new LinkCache.Entry(url, null, null, System.currentTimeMillis()));
 
-    return url;
+    // Trigger javadoc.io to build the docs in the background, as the response is of no use to this build
+    if (!exists && WarmupQueue.get().submit("https://www.javadoc.io/doc/" + artifact.getGroupId() + "/" + artifact.getArtifactId() + "/" + artifact.getVersion().replace("-SNAPSHOT", "") + "/"))
+      metrics.count("warmupRequests", 1);
+
+    metrics.stop("probe", start);
+    return exists;
   }
 
-  private boolean downloadPackageList(String docUrl, final File file) {
+  private Download downloadPackageList(String docUrl, final File file) {
     if (docUrl == null)
-      return false;
+      return null;
 
+    final long start = metrics.start();
     try {
-      final int responseCode = downloadFile(docUrl = docUrl + "package-list", file);
-      if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED)
+      metrics.count("httpRequests", 1);
+      final Download download = downloadFile(docUrl = docUrl + "package-list", file);
+      if (download.getResponseCode() == HttpURLConnection.HTTP_OK)
+        metrics.count("bytesDownloaded", file.length());
+
+      if (download.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED)
         getLog().debug("Not Modified: " + docUrl);
+      else if (download.getResponseCode() != HttpURLConnection.HTTP_OK)
+        throw new IOException("HTTP " + download.getResponseCode() + ": " + docUrl);
 
-      return true;
+      return download;
+    }
+    catch (final HostHealth.CircuitOpenException e) {
+      getLog().debug(e.getMessage() + ": " + docUrl);
+      return null;
     }
     catch (final IOException e) {
       String message = e.getMessage();
@@ -193,36 +375,76 @@ class UnpackDependencies extends UnpackDependenciesMojo {
       else
         getLog().warn(message);
 
-      return false;
+      return null;
+    }
+    finally {
+      metrics.stop("download", start);
     }
   }
 
-  private void addDependency(final Artifact artifact, final boolean resolved) {
-    final Set<OfflineLink> offlineLinks = artifactToOfflineLinks.get(artifact);
+  private Set<OfflineLink> resolveDependency(final Artifact artifact, final boolean resolved) {
+    final CompletableFuture<Set<OfflineLink>> offlineLinks = artifactToOfflineLinks.get(artifact);
     if (offlineLinks != null) {
-      this.offlineLinks.addAll(offlineLinks);
-    }
-    else {
-      OfflineLink dependencyLink = artifactToDependencyLink.get(artifact);
-      if (dependencyLink == null) {
-        final File destDir = getFormattedOutputDirectory(artifact);
-        dependencyLink = new OfflineLink();
-        dependencyLink.setUrl(getJavadocIoLink(artifact));
-        dependencyLink.setLocation(destDir.getAbsolutePath());
-        if (!resolved) {
-          destDir.mkdirs();
-          final File packageListFile = new File(destDir, "package-list");
-          if (!downloadPackageList(getJavadocIoLink(artifact), packageListFile) && !downloadPackageList(getJavadocLink(artifact), packageListFile)) {
-            getLog().error("Unable to resolve dependency: " + artifact.getId());
-            return;
-          }
-        }
+      final Set<OfflineLink> moduleLinks = offlineLinks.join();
+      if (moduleLinks != null)
+        return moduleLinks;
+    }
 
-        artifactToDependencyLink.put(artifact, dependencyLink);
+    final OfflineLink dependencyLink = resolveOnce(artifactToDependencyLink, artifact, (final Artifact a) -> resolveDependencyLink(a, resolved), metrics);
+    return dependencyLink != null ? Collections.singleton(dependencyLink) : Collections.emptySet();
+  }
+
+  private OfflineLink resolveDependencyLink(final Artifact artifact, final boolean resolved) {
+    if (unresolved.contains(artifact)) {
+      metrics.count("unresolvedHits", 1);
+      return null;
+    }
+
+    final File destDir = getFormattedOutputDirectory(artifact);
+    final File packageListFile = new File(destDir, "package-list");
+    final String key = LinkCache.getKey(artifact);
+    final LinkCache.Entry entry = artifact.isSnapshot() ? null : linkCache.get(key);
+    final OfflineLink dependencyLink = new OfflineLink();
+    dependencyLink.setLocation(destDir.getAbsolutePath());
+    if (entry != null && packageListFile.exists()) {
+      metrics.count("linkCacheHits", 1);
+      dependencyLink.setUrl(entry.getUrl());
+      if (!offline)
+        linkCache.refreshIfStale(key, entry, packageListFile, TimeUnit.HOURS.toMillis(mojo.getLinkCacheTtl()), getLog());
+
+      return dependencyLink;
+    }
+
+    metrics.count("linkCacheMisses", 1);
+    final String javadocIoLink = getJavadocIoLink(artifact);
+    dependencyLink.setUrl(javadocIoLink);
+    Download download = null;
+    final boolean javadocIoAvailable = probeJavadocIo(artifact);
+    if (!resolved) {
+      // In offline mode, the dependency is linked only if its package-list was downloaded by an earlier build
+      if (offline) {
+        for (final String packageListName : packageListNames) // [A]
+          if (new File(destDir, packageListName).exists())
+            return dependencyLink;
+
+        unlinked.add(artifact.getId());
+        unresolved.add(artifact);
+        metrics.count("unlinked", 1);
+        return null;
       }
 
-      this.offlineLinks.add(dependencyLink);
+      destDir.mkdirs();
+      if ((!javadocIoAvailable || (download = downloadPackageList(javadocIoLink, packageListFile)) == null) && (download = downloadPackageList(getJavadocLink(artifact), packageListFile)) == null) {
+        // The failure is not retained, because it may be transient, so that later modules try again
+        getLog().error("Unable to resolve dependency: " + artifact.getId());
+        return null;
+      }
     }
+
+    if (!artifact.isSnapshot())
+      linkCache.put(key, new LinkCache.Entry(javadocIoLink, download != null ? download.getUrl() : null, download != null ? download.getValidator() : null, System.currentTimeMillis()));
+
+    return dependencyLink;
   }
 
   private File getFormattedOutputDirectory(final Artifact artifact) {
@@ -234,30 +456,369 @@ class UnpackDependencies extends UnpackDependenciesMojo {
     return new File(outputDirectory, builder.toString());
   }
 
+  /**
+   * Resolves the {@link OfflineLink}s of the specified artifacts on a pool of at most
+   * {@link DefaultMojo#getLinkResolutionThreads()} threads, and adds the results to {@link #offlineLinks} in the order of the
+   * provided artifacts, so that the resulting set is the same as if the artifacts were resolved one after another.
+   *
+   * @param artifacts The artifacts to resolve.
+   * @param resolved Whether the javadoc jars of the {@code artifacts} were resolved.
+   * @throws MojoExecutionException If the resolution was interrupted, or has failed with an unchecked exception.
+   */
+  private void addDependencies(final Set<Artifact> artifacts, final boolean resolved) throws MojoExecutionException {
+    final int threads = Math.min(artifacts.size(), mojo.getLinkResolutionThreads());
+    if (threads <= 1) {
+      for (final Artifact artifact : artifacts) // [S]
+        offlineLinks.addAll(resolveDependency(artifact, resolved));
+
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final ArrayList<Future<Set<OfflineLink>>> futures = new ArrayList<>(artifacts.size());
+      for (final Artifact artifact : artifacts) // [S]
+        futures.add(executor.submit(() -> resolveDependency(artifact, resolved)));
+
+      for (int i = 0, i$ = futures.size(); i < i$; ++i) // [RA]
+        offlineLinks.addAll(futures.get(i).get());
+    }
+    catch (final ExecutionException e) {
+      throw new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Override
   protected DependencyStatusSets getDependencySets(final boolean stopOnFailure) throws MojoExecutionException {
+    long start = metrics.start();
     final DependencyStatusSets dependencyStatusSets = super.getDependencySets(stopOnFailure);
+    metrics.stop("resolveDependencies", start);
+    start = metrics.start();
     final Set<Artifact> unResolvedDependencies = dependencyStatusSets.getUnResolvedDependencies();
     if (unResolvedDependencies.size() > 0)
-      for (final Artifact artifact : unResolvedDependencies) // [S]
-        addDependency(artifact, false);
+      addDependencies(unResolvedDependencies, false);
 
     final Set<Artifact> resolvedDependencies = dependencyStatusSets.getResolvedDependencies();
     if (resolvedDependencies.size() > 0)
-      for (final Artifact artifact : resolvedDependencies) // [S]
-        addDependency(artifact, true);
+      addDependencies(resolvedDependencies, true);
 
+    metrics.stop("resolveLinks", start);
+    metrics.count("dependencies", unResolvedDependencies.size() + resolvedDependencies.size());
     return dependencyStatusSets;
   }
 
+  /**
+   * Seeds the {@link LinkCache} from the bundle of {@link DefaultMojo#getLinkBundle()}, if it exists, so that the links of the
+   * dependencies are not resolved via the network.
+   */
+  private void importLinkBundle() {
+    final File linkBundle = mojo.getLinkBundle();
+    if (linkBundle == null)
+      return;
+
+    if (!linkBundle.exists()) {
+      getLog().debug("Link bundle not found: " + linkBundle);
+      return;
+    }
+
+    final long start = metrics.start();
+    try {
+      final int imported = linkCache.importBundle(linkBundle);
+      metrics.count("importedLinks", imported);
+      mojo.getLog().info("Imported " + imported + " links from " + linkBundle);
+    }
+    catch (final IOException e) {
+      getLog().warn("Unable to import link bundle " + linkBundle + ": " + e.getMessage());
+    }
+    finally {
+      metrics.stop("importLinks", start);
+    }
+  }
+
+  /**
+   * Returns whether this is the first call for the specified session, in which case the caller is responsible for the prefetch of
+   * the reactor.
+   */
+  private static synchronized boolean isFirstUse(final MavenSession session) {
+    if (prefetchSession == session)
+      return false;
+
+    prefetchSession = session;
+    return true;
+  }
+
+  private static String getKey(final ArtifactCoordinate coordinate) {
+    return coordinate.getGroupId() + ":" + coordinate.getArtifactId() + ":" + coordinate.getExtension() + ":" + coordinate.getClassifier() + ":" + coordinate.getVersion();
+  }
+
+  /**
+   * Resolves the javadoc artifacts of the union of the dependencies of the specified reactor projects, and extracts their
+   * package-lists, in one batch on {@link DefaultMojo#getLinkResolutionThreads()} threads. The dependencies of each project are
+   * resolved with its own dependency management, so that the versions of the prefetched artifacts are those that the project itself
+   * resolves, rather than versions mediated across the reactor. The results are held in {@link #javadocArtifacts} and
+   * {@link #extractedJars}, keyed by the resolved versions, in which the modules then look them up instead of resolving each artifact
+   * again. Dependencies that cannot be resolved in the batch are left to the modules.
+   *
+   * @param reactorProjects The projects of the reactor.
+   */
+  private void prefetch(final List<MavenProject> reactorProjects) {
+    final long start = metrics.start();
+    final Set<String> reactorKeys = new HashSet<>();
+    for (final MavenProject reactorProject : reactorProjects) // [L]
+      reactorKeys.add(reactorProject.getGroupId() + ":" + reactorProject.getArtifactId());
+
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, mojo.getLinkResolutionThreads()));
+    try {
+      final ArrayList<Future<List<Artifact>>> resolutions = new ArrayList<>(reactorProjects.size());
+      for (final MavenProject reactorProject : reactorProjects) // [L]
+        resolutions.add(executor.submit(() -> resolveDependencies(reactorProject, reactorKeys)));
+
+      final Set<Artifact> artifacts = new LinkedHashSet<>();
+      for (int i = 0, i$ = resolutions.size(); i < i$; ++i) { // [RA]
+        try {
+          artifacts.addAll(resolutions.get(i).get());
+        }
+        catch (final ExecutionException e) {
+          getLog().debug("Unable to prefetch the dependencies of " + reactorProjects.get(i).getId() + ": " + e.getCause().getMessage());
+        }
+      }
+
+      if (artifacts.isEmpty())
+        return;
+
+      final Set<ArtifactCoordinate> coordinates = new ClassifierTypeTranslator((ArtifactHandlerManager)getField(AbstractDependencyFilterMojo.class, this, "artifactHandlerManager"), classifier, null).translate(artifacts, getLog());
+      final ArrayList<Future<Boolean>> futures = new ArrayList<>(coordinates.size());
+      for (final ArtifactCoordinate coordinate : coordinates) { // [S]
+        futures.add(executor.submit(() -> {
+          final Artifact artifact = resolveOnce(javadocArtifacts, getKey(coordinate), (final String k) -> resolveJavadoc(coordinate), metrics);
+          if (artifact == null)
+            return false;
+
+          extractOnce(artifact);
+          return true;
+        }));
+      }
+
+      int prefetched = 0;
+      for (int i = 0, i$ = futures.size(); i < i$; ++i) { // [RA]
+        try {
+          if (futures.get(i).get())
+            ++prefetched;
+        }
+        catch (final ExecutionException e) {
+          getLog().debug("Unable to prefetch javadoc artifact: " + e.getCause().getMessage());
+        }
+      }
+
+      metrics.count("prefetched", prefetched);
+      getLog().info("Prefetched the javadoc artifacts of " + prefetched + " dependencies of the reactor in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      executor.shutdownNow();
+      metrics.stop("prefetch", start);
+    }
+  }
+
+  /**
+   * Resolves the dependencies of the specified project, other than those in the reactor and those of {@code system} scope, with the
+   * dependency management of the project.
+   *
+   * @param project The {@link MavenProject}.
+   * @param reactorKeys The {@code groupId:artifactId} keys of the projects of the reactor.
+   * @return The resolved dependencies of the specified project.
+   * @throws DependencyResolverException If the dependencies cannot be resolved.
+   */
+  private List<Artifact> resolveDependencies(final MavenProject project, final Set<String> reactorKeys) throws DependencyResolverException {
+    final List<Dependency> dependencies = new ArrayList<>();
+    for (final Dependency dependency : project.getDependencies()) // [L]
+      if (!reactorKeys.contains(dependency.getGroupId() + ":" + dependency.getArtifactId()) && !"system".equals(dependency.getScope()))
+        dependencies.add(dependency);
+
+    if (dependencies.isEmpty())
+      return Collections.emptyList();
+
+    final DependencyManagement dependencyManagement = project.getDependencyManagement();
+    final List<Artifact> artifacts = new ArrayList<>();
+    for (final ArtifactResult result : getDependencyResolver().resolveDependencies(newResolveArtifactProjectBuildingRequest(), dependencies, dependencyManagement != null ? dependencyManagement.getDependencies() : null, null)) // [I]
+      if (!reactorKeys.contains(result.getArtifact().getGroupId() + ":" + result.getArtifact().getArtifactId()))
+        artifacts.add(result.getArtifact());
+
+    return artifacts;
+  }
+
+  /**
+   * Resolves the specified coordinate, or returns {@code null} if it cannot be resolved. A failure is not retained in
+   * {@link #javadocArtifacts}, because it may be transient, whereas the absence of an artifact is cached in the local repository by
+   * the repository system itself.
+   */
+  private Artifact resolveJavadoc(final ArtifactCoordinate coordinate) {
+    try {
+      return getArtifactResolver().resolveArtifact(newResolveArtifactProjectBuildingRequest(), coordinate).getArtifact();
+    }
+    catch (final ArtifactResolverException e) {
+      getLog().debug("error resolving: " + coordinate);
+      getLog().debug(e);
+      return null;
+    }
+  }
+
+  /**
+   * Resolves the specified coordinates, looking up the results of the prefetch of the reactor, or of other modules, before the
+   * repository system.
+   */
+  @Override
+  protected Set<Artifact> resolve(final Set<ArtifactCoordinate> coordinates, final boolean stopOnFailure) throws MojoExecutionException {
+    if (stopOnFailure)
+      return super.resolve(coordinates, stopOnFailure);
+
+    final Set<Artifact> artifacts = new LinkedHashSet<>();
+    for (final ArtifactCoordinate coordinate : coordinates) { // [S]
+      final Artifact artifact = resolveOnce(javadocArtifacts, getKey(coordinate), (final String k) -> resolveJavadoc(coordinate), metrics);
+      if (artifact != null)
+        artifacts.add(artifact);
+    }
+
+    return artifacts;
+  }
+
+  private int extractOnce(final Artifact artifact) {
+    final File jarFile = artifact.getFile();
+    return resolveOnce(extractedJars, jarFile.getAbsolutePath() + ":" + jarFile.lastModified(), (final String k) -> {
+      try {
+        return extractPackageLists(jarFile, getFormattedOutputDirectory(artifact));
+      }
+      catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, metrics);
+  }
+
+  /**
+   * Extracts the {@code package-list} and {@code element-list} of the specified javadoc jar to the specified directory. The entries
+   * are looked up in the central directory of the jar, and no other entry is read or written.
+   *
+   * @param jarFile The javadoc jar.
+   * @param destDir The destination directory.
+   * @return The number of extracted entries.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static int extractPackageLists(final File jarFile, final File destDir) throws IOException {
+    int extracted = 0;
+    try (final ZipFile zipFile = new ZipFile(jarFile)) {
+      for (final String name : packageListNames) { // [A]
+        final ZipEntry entry = zipFile.getEntry(name);
+        if (entry != null && !entry.isDirectory()) {
+          destDir.mkdirs();
+          // Replace the file atomically, because modules that are built concurrently may extract the same jar
+          final File tempFile = File.createTempFile(name, ".tmp", destDir);
+          try {
+            try (final InputStream in = zipFile.getInputStream(entry)) {
+              Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            Files.move(tempFile.toPath(), new File(destDir, name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+          }
+          finally {
+            tempFile.delete();
+          }
+
+          ++extracted;
+        }
+      }
+    }
+
+    return extracted;
+  }
+
+  /**
+   * Extracts only the {@code package-list} and {@code element-list} of the javadoc jar of the specified artifact, instead of
+   * unpacking the whole jar, because no other file of the jar is used. A jar that was extracted by the prefetch of the reactor, or
+   * by another module, is not extracted again.
+   */
   @Override
   protected void unpack(final Artifact artifact, final File location, final String includes, final String excludes, final String encoding) throws MojoExecutionException {
-    super.unpack(artifact, getFormattedOutputDirectory(artifact), includes, excludes, encoding);
+    final long start = metrics.start();
+    try {
+      if (extractOnce(artifact) == 0)
+        getLog().warn("No package-list or element-list in " + artifact.getFile());
+    }
+    catch (final UncheckedIOException e) {
+      throw new MojoExecutionException("Error unpacking file: " + artifact.getFile() + " to: " + location + "\r\n" + e.getCause().toString(), e.getCause());
+    }
+    finally {
+      metrics.stop("unpack", start);
+    }
+  }
+
+  /**
+   * Returns a filter of the artifacts that are marked as unpacked, which checks the {@link MarkerIndex} instead of a marker file per
+   * artifact if {@code markerIndex} is set.
+   */
+  @Override
+  protected ArtifactsFilter getMarkedArtifactFilter() {
+    if (markerIndex != null) {
+      try {
+        return new MarkerFileFilter(overWriteReleases, overWriteSnapshots, overWriteIfNewer, markerIndex.newHandler(classifier));
+      }
+      catch (final IOException e) {
+        getLog().warn("Unable to read marker index: " + e.getMessage());
+      }
+    }
+
+    return super.getMarkedArtifactFilter();
+  }
+
+  private void setMarker(final Artifact artifact) throws MojoExecutionException {
+    if (markerIndex == null) {
+      new DefaultFileMarkerHandler(artifact, markersDirectory).setMarker();
+      return;
+    }
+
+    try {
+      markerIndex.setMarker(artifact);
+    }
+    catch (final IOException e) {
+      getLog().warn("Unable to write marker index: " + e.getMessage());
+    }
   }
 
   @Override
   protected void doExecute() throws MojoExecutionException {
-    super.doExecute();
+    // Same as UnpackDependenciesMojo#doExecute(), but with the marker set via setMarker(Artifact). UnpackDependenciesMojo checks the
+    // markers of the dependencies rather than of their javadoc artifacts, and unpacks all javadoc artifacts regardless, so with the
+    // marker index, the javadoc artifacts are checked here
+    final DependencyStatusSets dependencySets = getDependencySets(failOnMissingClassifierArtifact);
+    final Set<Artifact> artifacts;
+    try {
+      artifacts = markerIndex != null ? getMarkedArtifactFilter().filter(dependencySets.getResolvedDependencies()) : dependencySets.getResolvedDependencies();
+    }
+    catch (final ArtifactFilterException e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+
+    for (final Artifact artifact : dependencySets.getResolvedDependencies()) { // [S]
+      if (artifacts.contains(artifact)) {
+        unpack(artifact, DependencyUtil.getFormattedOutputDirectory(useSubDirectoryPerScope, useSubDirectoryPerType, useSubDirectoryPerArtifact, useRepositoryLayout, stripVersion, outputDirectory, artifact), getIncludes(), getExcludes(), getEncoding());
+        setMarker(artifact);
+      }
+      else {
+        metrics.count("markedArtifacts", 1);
+      }
+    }
+
+    for (final Artifact artifact : dependencySets.getSkippedDependencies()) // [S]
+      getLog().info(artifact.getId() + " already exists in destination.");
+
     if (offlineLinks.size() > 0) {
       try {
         for (final OfflineLink offlineLink : offlineLinks) // [S]
@@ -267,5 +828,12 @@ class UnpackDependencies extends UnpackDependenciesMojo {
         throw new MojoExecutionException(e.getMessage(), e);
       }
     }
+
+    try {
+      linkCache.save();
+    }
+    catch (final IOException e) {
+      getLog().warn("Unable to save link cache: " + e.getMessage());
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A queue of fire-and-forget requests that trigger javadoc.io to build the docs of artifacts that it does not yet have. The requests
+ * are made on a single daemon thread, with a pause of at least {@code minInterval} milliseconds between them, and each URL is
+ * requested at most once per session, so that the threads that submit them never wait on javadoc.io. The requests are not accounted
+ * in the {@link HostHealth} of javadoc.io, because their responses are expected to be slow while javadoc.io builds the docs. Requests
+ * that are still pending at the end of the session are cancelled.
+ */
+final class WarmupQueue {
+  private static final long MIN_INTERVAL = 250;
+  private static final long CLOSE_TIMEOUT = 1000;
+  private static WarmupQueue instance;
+
+  /**
+   * Returns the {@link WarmupQueue} of the current session, which is created on first use.
+   *
+   * @return The {@link WarmupQueue} of the current session.
+   */
+  static synchronized WarmupQueue get() {
+    if (instance == null)
+      instance = new WarmupQueue(MIN_INTERVAL);
+
+    return instance;
+  }
+
+  /**
+   * Closes the {@link WarmupQueue} of the current session, if one exists, and logs the number of its sent and cancelled requests.
+   *
+   * @param log The {@link Log}.
+   */
+  static void shutdown(final Log log) {
+    final WarmupQueue queue;
+    synchronized (WarmupQueue.class) {
+      queue = instance;
+      instance = null;
+    }
+
+    if (queue != null) {
+      final int cancelled = queue.close();
+      if (log.isDebugEnabled())
+        log.debug("javadoc.io warm-up: " + queue.getSent() + " requests sent, " + cancelled + " cancelled");
+    }
+  }
+
+  private final long minInterval;
+  private final Set<String> submitted = ConcurrentHashMap.newKeySet();
+  private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+  private final AtomicInteger sent = new AtomicInteger();
+  private Thread thread;
+  private boolean closed;
+
+  WarmupQueue(final long minInterval) {
+    this.minInterval = minInterval;
+  }
+
+  private void drain() {
+    try {
+      for (long last = 0; !Thread.currentThread().isInterrupted();) {
+        final String url = pending.take();
+        final long wait = last + minInterval - System.currentTimeMillis();
+        if (wait > 0)
+          Thread.sleep(wait);
+
+        try {
+          MojoUtil.trigger(url);
+        }
+        catch (final IOException | RuntimeException e) {
+          // The response is of no use to the build, and a failed request must not stop the requests that follow it
+        }
+
+        sent.incrementAndGet();
+        last = System.currentTimeMillis();
+      }
+    }
+    catch (final InterruptedException e) {
+    }
+  }
+
+  /**
+   * Submits a request to the specified URL, unless it was submitted before, or this queue is closed. This method never blocks.
+   *
+   * @param url The URL.
+   * @return Whether the request was queued.
+   */
+  synchronized boolean submit(final String url) {
+    if (closed || !submitted.add(url))
+      return false;
+
+    pending.offer(url);
+    // The thread is restarted if it has died, so that the requests that are submitted later are not left pending
+    if (thread == null || !thread.isAlive()) {
+      thread = new Thread(this::drain, "javadocio-warmup");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    return true;
+  }
+
+  /**
+   * Closes this queue, cancels its pending requests, and waits up to {@value #CLOSE_TIMEOUT} milliseconds for the request in flight
+   * to finish.
+   *
+   * @return The number of cancelled requests.
+   */
+  int close() {
+    final Thread thread;
+    final int cancelled;
+    synchronized (this) {
+      closed = true;
+      cancelled = pending.size();
+      pending.clear();
+      thread = this.thread;
+    }
+
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        thread.join(CLOSE_TIMEOUT);
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    return cancelled;
+  }
+
+  int getSent() {
+    return sent.get();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A pool of warm javadoc worker JVMs that is shared by the modules of a reactor. Workers are started on demand, up to the size of
+ * the pool, and each runs the javadoc jobs of one module at a time until the pool is shut down at the end of the reactor. The pool
+ * records the startup time of its workers and the duration of their first (cold) and subsequent (warm) jobs, from which it estimates
+ * the time that was saved by reusing warm JVMs.
+ */
+final class WorkerPool {
+  private static WorkerPool instance;
+
+  static final class Result {
+    private final int exitCode;
+    private final String out;
+    private final String err;
+
+    private Result(final int exitCode, final String out, final String err) {
+      this.exitCode = exitCode;
+      this.out = out;
+      this.err = err;
+    }
+
+    int getExitCode() {
+      return exitCode;
+    }
+
+    String getOut() {
+      return out;
+    }
+
+    String getErr() {
+      return err;
+    }
+  }
+
+  private final class Worker {
+    private final Process process;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private int jobs;
+
+    private Worker() throws IOException {
+      final long start = System.nanoTime();
+      final List<String> command = new ArrayList<>();
+      command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath());
+      if (heap != null && heap.length() > 0)
+        command.add("-Xmx" + heap);
+
+      command.add("-cp");
+      command.add(getClasspath());
+      command.add(JavadocWorker.class.getName());
+      process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+      out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+      try {
+        final int ready = in.readInt();
+        if (ready == -1)
+          throw new IOException(JavadocWorker.readString(in));
+
+        // Such as the error of a JVM that failed to start, which is not a message of the protocol
+        if (ready != 0)
+          throw new IOException("Unable to start javadoc worker: unexpected output");
+      }
+      catch (final IOException e) {
+        process.destroy();
+        throw e;
+      }
+
+      synchronized (WorkerPool.this) {
+        startupNanos += System.nanoTime() - start;
+      }
+    }
+
+    private Result run(final String[] args) throws IOException {
+      out.writeInt(args.length);
+      for (final String arg : args) // [A]
+        JavadocWorker.writeString(out, arg);
+
+      out.flush();
+      final int exitCode = in.readInt();
+      final long nanos = in.readLong();
+      final Result result = new Result(exitCode, JavadocWorker.readString(in), JavadocWorker.readString(in));
+      synchronized (WorkerPool.this) {
+        if (jobs++ == 0) {
+          coldNanos += nanos;
+          ++coldJobs;
+        }
+        else {
+          warmNanos += nanos;
+          ++warmJobs;
+        }
+      }
+
+      return result;
+    }
+
+    private void close() {
+      try {
+        out.close();
+        if (!process.waitFor(5, TimeUnit.SECONDS))
+          process.destroy();
+      }
+      catch (final IOException e) {
+        process.destroy();
+      }
+      catch (final InterruptedException e) {
+        process.destroy();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Returns the {@link WorkerPool} of the current session, which is created with the specified size and heap if it does not exist.
+   * The configuration of the first module that uses the pool applies to the whole session.
+   *
+   * @param size The maximum number of workers.
+   * @param heap The maximum heap of each worker, such as {@code 512m}, or {@code null} for the default of the JVM.
+   * @return The {@link WorkerPool} of the current session.
+   */
+  static synchronized WorkerPool get(final int size, final String heap) {
+    if (instance == null)
+      instance = new WorkerPool(size, heap);
+
+    return instance;
+  }
+
+  /**
+   * Shuts down the {@link WorkerPool} of the current session, if one exists, and logs the time that was saved by its warm workers.
+   *
+   * @param log The {@link Log}.
+   */
+  static void shutdown(final Log log) {
+    final WorkerPool pool;
+    synchronized (WorkerPool.class) {
+      pool = instance;
+      instance = null;
+    }
+
+    if (pool != null) {
+      pool.close();
+      pool.report(log);
+    }
+  }
+
+  private static String getClasspath() throws IOException {
+    try {
+      return new File(JavadocWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    }
+    catch (final URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private final int size;
+  private final String heap;
+  private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+  private final List<Worker> workers = new ArrayList<>();
+  private final Thread shutdownHook = new Thread(this::close, "javadocio-worker-shutdown");
+  private long startupNanos;
+  private long coldNanos;
+  private int coldJobs;
+  private long warmNanos;
+  private int warmJobs;
+  private boolean hookRegistered;
+  private boolean closed;
+
+  WorkerPool(final int size, final String heap) {
+    this.size = Math.max(1, size);
+    this.heap = heap;
+  }
+
+  private Worker borrow() throws IOException {
+    try {
+      while (true) {
+        Worker worker = idle.poll();
+        if (worker != null)
+          return worker;
+
+        synchronized (this) {
+          if (closed)
+            throw new IOException("Worker pool is shut down");
+
+          if (workers.size() < size) {
+            // Registered once, because the workers may be emptied again by failed workers
+            if (!hookRegistered) {
+              Runtime.getRuntime().addShutdownHook(shutdownHook);
+              hookRegistered = true;
+            }
+
+            worker = new Worker();
+            workers.add(worker);
+            return worker;
+          }
+        }
+
+        // Poll with a timeout, because a worker that fails is not returned to the queue
+        worker = idle.poll(1, TimeUnit.SECONDS);
+        if (worker != null)
+          return worker;
+      }
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Runs the javadoc tool with the specified arguments in a warm worker of this pool, waiting for a worker to become idle if all are
+   * busy. A worker that fails is discarded, and is replaced by a new worker on demand.
+   *
+   * @param args The arguments of the javadoc tool, with absolute paths.
+   * @return The {@link Result} of the run.
+   * @throws IOException If the worker could not be started, or has failed.
+   */
+  Result run(final String[] args) throws IOException {
+    final Worker worker = borrow();
+    final Result result;
+    try {
+      result = worker.run(args);
+    }
+    catch (final IOException e) {
+      worker.process.destroy();
+      synchronized (this) {
+        workers.remove(worker);
+      }
+
+      throw e;
+    }
+
+    idle.add(worker);
+    return result;
+  }
+
+  synchronized int getStarted() {
+    return workers.size();
+  }
+
+  /**
+   * Closes the workers of this pool, letting each exit at the end of its standard input.
+   */
+  void close() {
+    final List<Worker> workers;
+    final boolean hookRegistered;
+    synchronized (this) {
+      if (closed)
+        return;
+
+      closed = true;
+      workers = new ArrayList<>(this.workers);
+      hookRegistered = this.hookRegistered;
+    }
+
+    for (int i = 0, i$ = workers.size(); i < i$; ++i) // [RA]
+      workers.get(i).close();
+
+    if (hookRegistered && Thread.currentThread() != shutdownHook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      }
+      catch (final IllegalStateException e) {
+      }
+    }
+  }
+
+  /**
+   * Logs the number of jobs and workers of this pool, and the estimated time that was saved by running the warm jobs in reused
+   * workers: for each warm job, the mean startup time of a worker, and the mean difference between the duration of a cold and a warm
+   * job, which is the cost of class loading and JIT compilation.
+   *
+   * @param log The {@link Log}.
+   */
+  synchronized void report(final Log log) {
+    final int jobs = coldJobs + warmJobs;
+    if (jobs == 0)
+      return;
+
+    final long startup = startupNanos / coldJobs;
+    final long warmup = warmJobs == 0 ? 0 : Math.max(0, coldNanos / coldJobs - warmNanos / warmJobs);
+    final long saved = warmJobs * (startup + warmup);
+    log.info("javadoc workers: " + jobs + " jobs on " + coldJobs + " JVMs, estimated " + TimeUnit.NANOSECONDS.toMillis(saved) + " ms saved (" + TimeUnit.NANOSECONDS.toMillis(startup) + " ms startup and " + TimeUnit.NANOSECONDS.toMillis(warmup) + " ms warm-up per job)");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class FingerprintTest {
+  private static final File root = new File("target/fingerprint");
+
+  private static Fingerprint newFingerprint(final File sources) throws IOException {
+    return new Fingerprint().add("-sourcepath").add(sources.getPath()).addContents(sources);
+  }
+
+  @Test
+  public void testMatches() throws IOException {
+    final File sources = new File(root, "src");
+    final File file = new File(sources, "a/A.java");
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), "package a;".getBytes(StandardCharsets.UTF_8));
+
+    final File outputDirectory = new File(root, "apidocs");
+    outputDirectory.mkdirs();
+    Fingerprint.clear(outputDirectory);
+    assertFalse(newFingerprint(sources).matches(outputDirectory));
+
+    newFingerprint(sources).write(outputDirectory);
+    assertTrue(new File(root, "apidocs.fingerprint").exists());
+    assertTrue(newFingerprint(sources).matches(outputDirectory));
+
+    Files.write(file.toPath(), "package a; class A {}".getBytes(StandardCharsets.UTF_8));
+    assertFalse(newFingerprint(sources).matches(outputDirectory));
+  }
+
+  @Test
+  public void testValueBoundaries() {
+    assertNotEquals(new Fingerprint().add("ab").add("c").toString(), new Fingerprint().add("a").add("bc").toString());
+  }
+
+  @Test
+  public void testResources() throws IOException {
+    final File basedir = new File(root, "resources");
+    final File javadocDirectory = new File(basedir, "src/main/javadoc");
+    final File docFile = new File(javadocDirectory, "doc-files/a.html");
+    final File overview = new File(basedir, "src/main/javadoc/overview.html");
+    final File stylesheet = new File(basedir, "src/main/javadoc/stylesheet.css");
+    final File helpfile = new File(basedir, "help.html");
+    for (final File file : new File[] {docFile, overview, stylesheet, helpfile}) { // [A]
+      file.getParentFile().mkdirs();
+      Files.write(file.toPath(), file.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
+    String last = new Fingerprint().addResources(basedir, javadocDirectory, overview, "src/main/javadoc/stylesheet.css", "help.html").toString();
+    assertEquals(last, new Fingerprint().addResources(basedir, javadocDirectory, overview, "src/main/javadoc/stylesheet.css", "help.html").toString());
+    for (final File file : new File[] {docFile, overview, stylesheet, helpfile}) { // [A]
+      Files.write(file.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+      final String next = new Fingerprint().addResources(basedir, javadocDirectory, overview, "src/main/javadoc/stylesheet.css", "help.html").toString();
+      assertNotEquals(file.getName(), last, next);
+      last = next;
+    }
+
+    assertNotEquals(last, new Fingerprint().addResources(basedir, javadocDirectory, null, "src/main/javadoc/stylesheet.css", "help.html").toString());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class HostHealthTest {
+  private HttpServer server;
+  private ExecutorService executor;
+
+  private static void respond(final HttpExchange exchange, final int responseCode, final String body) throws IOException {
+    final byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(responseCode, "HEAD".equals(exchange.getRequestMethod()) || bytes.length == 0 ? -1 : bytes.length);
+    try (final OutputStream out = exchange.getResponseBody()) {
+      if (!"HEAD".equals(exchange.getRequestMethod()))
+        out.write(bytes);
+    }
+  }
+
+  /**
+   * Starts a stand-in server on a new port, so that each test has a host of its own.
+   */
+  private String start(final HttpHandler handler) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor = Executors.newCachedThreadPool());
+    server.createContext("/", handler);
+    server.start();
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRetry() throws IOException {
+    final AtomicInteger requests = new AtomicInteger();
+    final String baseUrl = start((final HttpExchange exchange) -> respond(exchange, requests.incrementAndGet() < 3 ? 503 : 200, "org.entinae\n"));
+    final File file = File.createTempFile("package-list", null);
+    try {
+      assertEquals(200, MojoUtil.downloadFile(baseUrl + "/package-list", file).getResponseCode());
+      assertEquals(3, requests.get());
+      assertFalse(HostHealth.of(new URL(baseUrl)).isOpen());
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testCircuitBreaker() throws IOException, InterruptedException {
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicBoolean healthy = new AtomicBoolean();
+    final String baseUrl = start((final HttpExchange exchange) -> {
+      requests.incrementAndGet();
+      respond(exchange, healthy.get() ? 200 : 500, null);
+    });
+
+    final HostHealth health = HostHealth.of(new URL(baseUrl), 500);
+    // Each call makes up to MAX_ATTEMPTS requests, until the circuit opens on the 5th failure
+    assertEquals(500, head(baseUrl + "/index.html"));
+    assertEquals(500, head(baseUrl + "/index.html"));
+    assertEquals(-1, head(baseUrl + "/index.html"));
+
+    assertTrue(health.isOpen());
+    assertEquals(HostHealth.FAILURE_THRESHOLD, requests.get());
+
+    // The remaining requests fail immediately
+    final long start = System.currentTimeMillis();
+    for (int i = 0; i < 100; ++i)
+      assertFalse(MojoUtil.exists(baseUrl + "/index.html"));
+
+    assertTrue(System.currentTimeMillis() - start < 500);
+    assertEquals(HostHealth.FAILURE_THRESHOLD, requests.get());
+
+    // The trial request after the open time closes the circuit once the host recovers
+    healthy.set(true);
+    Thread.sleep(600);
+    assertTrue(MojoUtil.exists(baseUrl + "/index.html"));
+    assertFalse(health.isOpen());
+  }
+
+  private static int head(final String url) {
+    try {
+      return MojoUtil.head(url);
+    }
+    catch (final IOException e) {
+      return -1;
+    }
+  }
+
+  @Test
+  public void testAdaptiveTimeout() throws IOException {
+    final String baseUrl = start((final HttpExchange exchange) -> {
+      if (exchange.getRequestURI().getPath().equals("/slow")) {
+        try {
+          Thread.sleep(1500);
+        }
+        catch (final InterruptedException e) {
+        }
+      }
+
+      respond(exchange, 200, null);
+    });
+
+    final HostHealth health = HostHealth.of(new URL(baseUrl));
+    assertEquals(3000, health.getTimeout(3000, 0));
+    for (int i = 0; i < 10; ++i)
+      assertTrue(MojoUtil.exists(baseUrl + "/fast"));
+
+    // A fast host is given up on long before the default timeout
+    assertEquals(HostHealth.MIN_TIMEOUT, health.getTimeout(3000, 0));
+    assertEquals(2 * HostHealth.MIN_TIMEOUT, health.getTimeout(3000, 1));
+
+    // The first two attempts time out, and the third, with a doubled timeout again, succeeds
+    assertTrue(MojoUtil.exists(baseUrl + "/slow"));
+    assertEquals(2, health.getFailures());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.junit.Test;
+
+public class JavadocRunnerTest {
+  private static JavadocReport newMojo(final File dir, final String outputDirectory) {
+    final Model model = new Model();
+    model.setGroupId("org.entinae");
+    model.setArtifactId("hello");
+    model.setVersion("1.0");
+    model.setBuild(new Build());
+    model.getBuild().setDirectory(new File(dir, "target").getAbsolutePath());
+
+    final MavenProject project = new MavenProject(model);
+    project.setFile(new File(dir, "pom.xml"));
+    project.setExecutionRoot(true);
+    project.addCompileSourceRoot(new File(dir, "src").getAbsolutePath());
+
+    final JavadocReport mojo = new JavadocReport();
+    mojo.project = project;
+    mojo.outputDirectory = new File(dir, outputDirectory);
+    mojo.useStandardDocletOptions = true;
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "reactorProjects", Collections.singletonList(project));
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "settings", new Settings());
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "javadocOptionsDir", new File(dir, "target/javadoc-bundle-options"));
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "session", new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(), project));
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "toolchainManager", (ToolchainManager)(final String type, final MavenSession session) -> null);
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "show", "protected");
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "stylesheet", "java");
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "encoding", "UTF-8");
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "notimestamp", true);
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "detectJavaApiLink", false);
+    MojoUtil.setField(AbstractJavadocMojo.class, mojo, "applyJavadocSecurityFix", true);
+    return mojo;
+  }
+
+  private static Map<String,String> readTree(final Path dir) throws IOException {
+    final Map<String,String> files = new TreeMap<>();
+    try (final Stream<Path> paths = Files.walk(dir)) {
+      for (final Path path : (Iterable<Path>)paths::iterator) // [I]
+        if (Files.isRegularFile(path))
+          files.put(dir.relativize(path).toString(), new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+    return files;
+  }
+
+  @Test
+  public void testSupported() {
+    assertNull(JavadocRunner.unsupported);
+  }
+
+  @Test
+  public void testInProcess() throws Exception {
+    final File dir = new File("target/javadoc-runner");
+    final File pkg = new File(dir, "src/org/example");
+    pkg.mkdirs();
+    Files.write(new File(pkg, "Hello.java").toPath(), "package org.example;\n\n/** Says hello. */\npublic class Hello {\n  /**\n   * Returns the greeting.\n   *\n   * @return The greeting.\n   */\n  public String greet() {\n    return \"hello\";\n  }\n}\n".getBytes(StandardCharsets.UTF_8));
+
+    // The javadocs of the plugin's own forked run, and of the in-process run, are identical
+    newMojo(dir, "forked").executeReport(Locale.getDefault());
+    JavadocRunner.executeReport(newMojo(dir, "in-process"), null, new SystemStreamLog());
+    final Map<String,String> forked = readTree(new File(dir, "forked").toPath());
+    assertTrue(forked.keySet().toString(), forked.containsKey(new File("org/example/Hello.html").getPath()));
+    assertEquals(forked, readTree(new File(dir, "in-process").toPath()));
+  }
+  @Test
+  public void testSplitNotices() {
+    final String err = "Loading source files for package org.example...\nConstructing Javadoc information...\nStandard Doclet version 17.0.9+9\nGenerating target/apidocs/index.html...\n/src/Hello.java:9: warning: no @return\n  public int broken() { return 1; }\n  ^\n1 warning\n";
+    final String[] output = JavadocRunner.splitNotices("", err);
+    assertTrue(output[0], output[0].startsWith("Loading source files for package org.example...\n"));
+    assertTrue(output[0], output[0].contains("Generating target/apidocs/index.html...\n"));
+    assertEquals("/src/Hello.java:9: warning: no @return\n  public int broken() { return 1; }\n  ^\n1 warning\n", output[1]);
+
+    final String[] quiet = JavadocRunner.splitNotices("", "");
+    assertEquals("", quiet[0]);
+    assertEquals("", quiet[1]);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class LinkCacheTest {
+  private static void write(final File file, final String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testBundle() throws IOException {
+    final File repo1 = new File("target/bundle/repo1");
+    final File repo2 = new File("target/bundle/repo2");
+    final File bundle = new File("target/bundle/links.zip");
+    final LinkCache cache1 = LinkCache.of(repo1);
+    cache1.put("org.entinae:a:1.0", new LinkCache.Entry("https://static.javadoc.io/org.entinae/a/1.0/", "https://static.javadoc.io/org.entinae/a/1.0/package-list", "\"etag\"", 1000));
+    write(new File(repo1, "org/entinae/a/1.0/javadoc/package-list"), "org.entinae.a\n");
+    write(new File(repo1, "org/entinae/a/1.0/javadoc/index.html"), "<html/>");
+    // An entry without a package-list is not exported
+    cache1.put("org.entinae:b:1.0", new LinkCache.Entry("https://static.javadoc.io/org.entinae/b/1.0/", null, null, 1000));
+    cache1.setMissing("org.entinae:c:1.0", true);
+    assertEquals(1, cache1.exportBundle(bundle));
+
+    final LinkCache cache2 = LinkCache.of(repo2);
+    cache2.put("org.entinae:a:1.0", new LinkCache.Entry("https://example.com/a/", null, null, 500));
+    assertEquals(1, cache2.importBundle(bundle));
+    final LinkCache.Entry entry = cache2.get("org.entinae:a:1.0");
+    assertEquals("https://static.javadoc.io/org.entinae/a/1.0/", entry.getUrl());
+    assertEquals("\"etag\"", entry.getValidator());
+    assertNull(cache2.get("org.entinae:b:1.0"));
+    assertTrue(cache2.isMissing("org.entinae:c:1.0", Long.MAX_VALUE));
+    assertEquals("org.entinae.a\n", new String(Files.readAllBytes(new File(repo2, "org/entinae/a/1.0/javadoc/package-list").toPath()), StandardCharsets.UTF_8));
+    assertFalse(new File(repo2, "org/entinae/a/1.0/javadoc/index.html").exists());
+    assertTrue(new File(repo2, ".javadocio/links.properties").exists());
+
+    // An older entry of the bundle does not replace a newer entry of the cache
+    cache2.put("org.entinae:a:1.0", new LinkCache.Entry("https://example.com/a/", null, null, 2000));
+    assertEquals(0, cache2.importBundle(bundle));
+    assertEquals("https://example.com/a/", cache2.get("org.entinae:a:1.0").getUrl());
+  }
+  @Test
+  public void testReprobe() throws IOException, InterruptedException {
+    final AtomicInteger requests = new AtomicInteger();
+    final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", (final HttpExchange exchange) -> {
+      requests.incrementAndGet();
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    server.start();
+    try {
+      final String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/a/";
+      final LinkCache cache = LinkCache.of(new File("target/reprobe/repo"));
+      final LinkCache.Entry fresh = new LinkCache.Entry(url, null, null, System.currentTimeMillis());
+      cache.put("org.entinae:a:1.0", fresh);
+      cache.reprobeIfStale("org.entinae:a:1.0", fresh, 60000, new SystemStreamLog());
+
+      // A stale entry is revalidated in the background, which renews its fetch time
+      final LinkCache.Entry stale = new LinkCache.Entry(url, null, null, 1000);
+      cache.put("org.entinae:a:1.0", stale);
+      cache.reprobeIfStale("org.entinae:a:1.0", stale, 60000, new SystemStreamLog());
+      for (int i = 0; i < 100 && cache.get("org.entinae:a:1.0") == stale; ++i)
+        Thread.sleep(50);
+
+      assertEquals(1, requests.get());
+      assertTrue(cache.get("org.entinae:a:1.0").getFetched() > 1000);
+      assertTrue(new File("target/reprobe/repo/.javadocio/links.properties").exists());
+    }
+    finally {
+      server.stop(0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Test;
+
+public class MarkerIndexTest {
+  private static Artifact newArtifact(final String artifactId, final File dir) throws IOException {
+    final Artifact artifact = new DefaultArtifact("org.entinae", artifactId, "1.0", "compile", "jar", "javadoc", new DefaultArtifactHandler());
+    final File file = new File(dir, "org/entinae/" + artifactId + "/1.0/" + artifactId + "-1.0-javadoc.jar");
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), artifactId.getBytes(StandardCharsets.UTF_8));
+    artifact.setFile(file);
+    return artifact;
+  }
+
+  @Test
+  public void testMarkers() throws Exception {
+    final File dir = new File("target/markers");
+    final File file = new File(dir, ".javadocio/markers.idx");
+    dir.mkdirs();
+    file.delete();
+
+    final Artifact a = newArtifact("a", dir);
+    final Artifact b = newArtifact("b", dir);
+
+    // An unresolved artifact is checked at its path in the local repository
+    final Artifact unresolved = new DefaultArtifact("org.entinae", "c", "1.0", "compile", "jar", "javadoc", new DefaultArtifactHandler("jar"));
+    assertEquals(new File(dir, "org/entinae/c/1.0/c-1.0-javadoc.jar"), new MarkerIndex(dir).getFile(unresolved));
+
+    // Two instances on the same file, as if in two processes
+    final MarkerIndex index1 = new MarkerIndex(dir);
+    final MarkerIndex index2 = new MarkerIndex(dir);
+    index1.setMarker(a);
+    assertNotNull(index2.getMarker(MarkerIndex.getKey(a)));
+    index2.setMarker(b);
+
+    final MarkerIndex.Handler handler = index1.newHandler(null);
+    handler.setArtifact(a);
+    assertTrue(handler.isMarkerSet());
+    handler.setArtifact(b);
+    assertTrue(handler.isMarkerSet());
+
+    // A dependency is checked by the marker of its javadoc artifact
+    final MarkerIndex.Handler javadocHandler = index1.newHandler("javadoc");
+    javadocHandler.setArtifact(new DefaultArtifact("org.entinae", "a", "1.0", "compile", "jar", null, new DefaultArtifactHandler("jar")));
+    assertTrue(javadocHandler.isMarkerSet());
+    javadocHandler.setArtifact(new DefaultArtifact("org.entinae", "c", "1.0", "compile", "jar", null, new DefaultArtifactHandler("jar")));
+    assertFalse(javadocHandler.isMarkerSet());
+
+    // A changed artifact is not marked
+    Files.write(b.getFile().toPath(), "b2".getBytes(StandardCharsets.UTF_8));
+    final MarkerIndex.Handler changed = index2.newHandler(null);
+    changed.setArtifact(b);
+    assertFalse(changed.isMarkerSet());
+
+    assertTrue(index2.clearMarker(b));
+    assertFalse(index1.clearMarker(b));
+    assertNull(new MarkerIndex(dir).getMarker(MarkerIndex.getKey(b)));
+
+    // A torn record at the end of the file is ignored, and overwritten by the next record
+    try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(raf.length());
+      raf.writeInt(100);
+      raf.writeByte(1);
+    }
+
+    final MarkerIndex index3 = new MarkerIndex(dir);
+    assertNotNull(index3.getMarker(MarkerIndex.getKey(a)));
+    index3.setMarker(b);
+    assertNotNull(index1.getMarker(MarkerIndex.getKey(b)));
+
+    // Compaction leaves only the markers that are set, and is seen by the other instances
+    for (int i = 0; i < 10; ++i)
+      index1.setMarker(a);
+
+    final long length = file.length();
+    index1.compact();
+    assertEquals(2, index1.getRecords());
+    assertTrue(file.length() < length);
+    index2.setMarker(a);
+    assertEquals(3, index2.getRecords());
+    assertNotNull(index1.getMarker(MarkerIndex.getKey(a)));
+    assertNotNull(index1.getMarker(MarkerIndex.getKey(b)));
+    assertEquals(3, index1.getRecords());
+  }
+}
\ No newline at end of file
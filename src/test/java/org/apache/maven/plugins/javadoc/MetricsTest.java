@@ -0,0 +1,61 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+public class MetricsTest {
+  @Test
+  public void testWrite() throws IOException {
+    final Metrics a = new Metrics("org.entinae:a:jar:1.0", "jar");
+    a.stop("download", a.start());
+    a.stop("download", a.start());
+    a.count("httpRequests", 2);
+    a.count("bytesDownloaded", 1024);
+    a.stop(Metrics.TOTAL, a.start());
+
+    final File file = new File("target/metrics/a.json");
+    a.write(file);
+    final String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    assertTrue(json, json.contains("\"module\": \"org.entinae:a:jar:1.0\""));
+    assertTrue(json, json.contains("\"count\": 2"));
+    assertTrue(json, json.contains("\"httpRequests\": 2"));
+    assertTrue(json, json.contains("\"bytesDownloaded\": 1024"));
+
+    final Metrics b = new Metrics("org.entinae:\"b\":jar:1.0", "jar");
+    b.stop(Metrics.TOTAL, b.start());
+    final File summary = new File("target/metrics/summary.json");
+    Metrics.writeSummary(summary, new SystemStreamLog());
+    final String summaryJson = new String(Files.readAllBytes(summary.toPath()), StandardCharsets.UTF_8);
+    assertTrue(summaryJson, summaryJson.startsWith("[\n  {"));
+    assertTrue(summaryJson, summaryJson.contains("org.entinae:a:jar:1.0"));
+    assertTrue(summaryJson, summaryJson.contains("org.entinae:\\\"b\\\":jar:1.0"));
+
+    // The registered modules are cleared by the summary
+    summary.delete();
+    Metrics.writeSummary(summary, new SystemStreamLog());
+    assertFalse(summary.exists());
+  }
+}
\ No newline at end of file
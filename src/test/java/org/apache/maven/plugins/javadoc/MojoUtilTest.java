@@ -19,18 +19,198 @@ package org.apache.maven.plugins.javadoc;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.apache.maven.model.Model;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 public class MojoUtilTest {
+  private static final List<String> methods = Collections.synchronizedList(new ArrayList<>());
+  private static final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<>());
+  private static HttpServer server;
+  private static String baseUrl;
+
+  private static void respond(final HttpExchange exchange, final int responseCode, final String body) throws IOException {
+    methods.add(exchange.getRequestMethod());
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    final byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(responseCode, "HEAD".equals(exchange.getRequestMethod()) || bytes.length == 0 ? -1 : bytes.length);
+    try (final OutputStream out = exchange.getResponseBody()) {
+      if (!"HEAD".equals(exchange.getRequestMethod()))
+        out.write(bytes);
+    }
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/exists", (final HttpExchange exchange) -> respond(exchange, 200, "index"));
+    server.createContext("/missing", (final HttpExchange exchange) -> respond(exchange, 404, null));
+    server.createContext("/redirect", (final HttpExchange exchange) -> {
+      exchange.getResponseHeaders().set("Location", "/package-list");
+      respond(exchange, 302, null);
+    });
+    server.createContext("/package-list", (final HttpExchange exchange) -> {
+      exchange.getResponseHeaders().set("ETag", "\"v1\"");
+      if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+        respond(exchange, 304, null);
+      else
+        respond(exchange, 200, "org.entinae\n");
+    });
+    server.start();
+    baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    server.stop(0);
+  }
+
   @Test
   public void testExists() {
-    assertTrue(MojoUtil.exists("https://www.google.com/"));
+    methods.clear();
+    assertTrue(MojoUtil.exists(baseUrl + "/exists"));
+    assertEquals(Collections.singletonList("HEAD"), methods);
+    assertFalse(MojoUtil.exists(baseUrl + "/missing"));
     assertFalse(MojoUtil.exists("https://www.blablabla328943432.com/"));
   }
 
+  @Test
+  public void testKeepAlive() throws IOException {
+    final File file = File.createTempFile("package-list", null);
+    try {
+      clientPorts.clear();
+      for (int i = 0; i < 5; ++i)
+        assertEquals(200, MojoUtil.downloadFile(baseUrl + "/package-list", file).getResponseCode());
+
+      assertEquals(1, clientPorts.size());
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testDownloadFile() throws IOException {
+    final File file = File.createTempFile("package-list", null);
+    file.delete();
+    try {
+      final MojoUtil.Download download = MojoUtil.downloadFile(baseUrl + "/redirect", file);
+      assertEquals(200, download.getResponseCode());
+      assertEquals("\"v1\"", download.getValidator());
+      assertEquals("org.entinae\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+
+      assertEquals(304, MojoUtil.downloadFile(baseUrl + "/redirect", file, download.getValidator()).getResponseCode());
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testDownloadFileAtomic() throws IOException {
+    final File dir = new File("target/download-atomic");
+    dir.mkdirs();
+    final File file = new File(dir, "package-list");
+    Files.write(file.toPath(), "org.old\n".getBytes(StandardCharsets.UTF_8));
+    file.setLastModified(0);
+    // A reader of the old file sees its whole content, because the file is replaced rather than truncated
+    try (final InputStream in = new FileInputStream(file)) {
+      assertEquals(200, MojoUtil.downloadFile(baseUrl + "/package-list", file).getResponseCode());
+      assertEquals("org.old\n", new String(IOUtil.toByteArray(in), StandardCharsets.UTF_8));
+    }
+
+    assertEquals("org.entinae\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    assertArrayEquals(new String[] {"package-list"}, dir.list());
+  }
+
+  @Test
+  public void testOffline() throws IOException {
+    try (final ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      socket.setSoTimeout(200);
+      final String url = "http://" + socket.getInetAddress().getHostAddress() + ":" + socket.getLocalPort();
+      final File file = new File("target/offline/package-list");
+      MojoUtil.setOffline(true);
+      try {
+        assertFalse(MojoUtil.exists(url + "/exists"));
+        try {
+          MojoUtil.downloadFile(url + "/package-list", file);
+          fail("Expected OfflineException");
+        }
+        catch (final MojoUtil.OfflineException e) {
+        }
+
+        assertFalse(file.exists());
+      }
+      finally {
+        MojoUtil.setOffline(false);
+      }
+
+      try (final Socket accepted = socket.accept()) {
+        fail("Expected no connection in offline mode");
+      }
+      catch (final SocketTimeoutException e) {
+      }
+
+      assertEquals(0, HostHealth.of(new URL(url)).getFailures());
+    }
+  }
+
   @Test
   public void testGetModelUrl() {
     assertEquals("https://github.com/entinae/javadocio-maven-plugin/", MojoUtil.getModelUrl(new File("pom.xml")));
   }
+
+  private static File writePom(final File repo, final String artifactId, final String body) throws IOException {
+    final File pomFile = new File(repo, "org/entinae/" + artifactId + "/1.0/" + artifactId + "-1.0.pom");
+    pomFile.getParentFile().mkdirs();
+    Files.write(pomFile.toPath(), ("<project><modelVersion>4.0.0</modelVersion>" + body + "<artifactId>" + artifactId + "</artifactId></project>").getBytes(StandardCharsets.UTF_8));
+    return pomFile;
+  }
+
+  @Test
+  public void testGetModelUrlMemoized() throws IOException {
+    final File repo = new File("target/model-repo");
+    writePom(repo, "parent", "<groupId>org.entinae</groupId><version>1.0</version><url>https://example.org/parent</url>");
+    final String child = "<parent><groupId>org.entinae</groupId><artifactId>parent</artifactId><version>1.0</version></parent>";
+    final File a = writePom(repo, "a", child);
+    final File b = writePom(repo, "b", child);
+
+    final Model model = MojoUtil.getModelArtifact(a);
+    for (int i = 0; i < 10; ++i) {
+      assertEquals("https://example.org/parent/a/", MojoUtil.getModelUrl(a));
+      assertEquals("https://example.org/parent/b/", MojoUtil.getModelUrl(b));
+    }
+
+    // The POM is parsed again only once its file has changed
+    assertSame(model, MojoUtil.getModelArtifact(a));
+    writePom(repo, "a", child + "<url>https://example.org/a</url>");
+    final Model modified = MojoUtil.getModelArtifact(a);
+    assertNotSame(model, modified);
+    assertEquals("https://example.org/a", modified.getUrl());
+    assertSame(modified, MojoUtil.getModelArtifact(a));
+    assertNull(MojoUtil.getModelUrl(new File(repo, "org/entinae/c/1.0/c-1.0.pom")));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugins.javadoc.options.OfflineLink;
+import org.junit.Test;
+
+public class PackageIndexTest {
+  private static final File root = new File("target/package-index");
+
+  private static OfflineLink newLink(final String name, final String fileName, final String ... packages) throws IOException {
+    final File dir = new File(root, name);
+    dir.mkdirs();
+    new File(dir, "package-list").delete();
+    if (fileName != null)
+      Files.write(new File(dir, fileName).toPath(), String.join("\n", packages).getBytes(StandardCharsets.UTF_8));
+
+    final OfflineLink link = new OfflineLink();
+    link.setUrl("https://static.javadoc.io/org.example/" + name + "/1.0/");
+    link.setLocation(dir.getAbsolutePath());
+    return link;
+  }
+
+  private static PackageIndex newIndex() throws IOException {
+    final List<OfflineLink> links = new ArrayList<>();
+    links.add(newLink("commons", "package-list", "org.example.commons", "org.example.commons.io"));
+    links.add(newLink("io", "element-list", "module:org.example.io", "org.example.commons.io", "org.example.io"));
+    links.add(newLink("unused", "package-list", "com.unused"));
+    links.add(newLink("missing", null));
+    return new PackageIndex(links);
+  }
+
+  private static BitSet findReferences(final PackageIndex index, final String text) {
+    final BitSet used = new BitSet();
+    index.findReferences(text, used);
+    return used;
+  }
+
+  @Test
+  public void testFindReferences() throws IOException {
+    final PackageIndex index = newIndex();
+    assertEquals(4, index.getPackageCount());
+    assertEquals(BitSet.valueOf(new long[] {0b1}), findReferences(index, "import org.example.commons.Strings;"));
+    assertEquals(BitSet.valueOf(new long[] {0b11}), findReferences(index, "import static org.example.commons.io.Files.copy;"));
+    assertEquals(BitSet.valueOf(new long[] {0b10}), findReferences(index, "/** {@link org.example.io.Stream#read()} */"));
+    assertEquals(BitSet.valueOf(new long[] {0b1}), findReferences(index, "final org.example.commons.Strings s = a.org.example.io.B;"));
+    assertEquals(new BitSet(), findReferences(index, "import org.example.Other; import com.unusedx.A; org.examples.commons.A"));
+  }
+
+  @Test
+  public void testFindReferencesInSources() throws IOException {
+    final File sources = new File(root, "src");
+    final File file = new File(sources, "a/A.java");
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), "package a;\nimport org.example.io.Stream;\nclass A {}".getBytes(StandardCharsets.UTF_8));
+    // The missing link has no package-list, and is therefore retained
+    assertEquals(BitSet.valueOf(new long[] {0b1010}), newIndex().findReferences(Collections.singleton(sources.getPath())));
+  }
+
+  @Test
+  public void testGetOverlaps() throws IOException {
+    final Map<String,int[]> overlaps = newIndex().getOverlaps();
+    assertEquals(Collections.singleton("org.example.commons.io"), overlaps.keySet());
+    assertArrayEquals(new int[] {0, 1}, overlaps.get("org.example.commons.io"));
+    assertEquals(Arrays.asList(), new ArrayList<>(new PackageIndex(Collections.emptyList()).getOverlaps().keySet()));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+public class PackageScannerTest {
+  private static final Path root = new File("target/generated-sources-test").toPath();
+
+  private static Path write(final String path, final String source) throws IOException {
+    final Path file = root.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String readPackage(final String source) throws IOException {
+    return PackageScanner.readPackage(write("header/Header.java", source));
+  }
+
+  @Test
+  public void testReadPackage() throws IOException {
+    assertEquals("a.b", readPackage("package a.b;\nclass A {}"));
+    assertEquals("a.b", readPackage("\uFEFF/* package x; */\n// package y;\npackage a . /* c */ b ;"));
+    assertEquals("a.b", readPackage("/**\n * **/ @Generated(value = \"package x;)\", date = \"(\") @javax.annotation.Nullable\npackage a.b;"));
+    assertEquals("a.b", readPackage("@A(@B(c = ')')) package a.b;"));
+    assertEquals("", readPackage("import a.b.C;\nclass A {}"));
+    assertEquals("", readPackage("@interface A {}"));
+    assertEquals("", readPackage("packagex.y z;"));
+    assertNull(readPackage("/* package a.b;"));
+    assertNull(readPackage("package a.b"));
+  }
+
+  @Test
+  public void testReadPackageBeyondHeader() throws IOException {
+    final char[] comment = new char[20000];
+    Arrays.fill(comment, '*');
+    assertEquals("a.b", readPackage("/" + new String(comment) + "/\npackage a.b;"));
+  }
+
+  @Test
+  public void testFindSourceRoots() throws IOException {
+    write("tree/jaxb/org/entinae/A.java", "package org.entinae;");
+    write("tree/jaxb/org/entinae/sub/B.java", "package org.entinae.sub;");
+    write("tree/jaxb/org/entinae2/C.java", "package org.entinae2;");
+    write("tree/protobuf/java/com/example/D.java", "// generated\npackage com.example;");
+    write("tree/protobuf/javalite/com/example/E.java", "package com.example;");
+    final Path tree = root.resolve("tree").toAbsolutePath();
+    assertEquals(Arrays.asList(tree.resolve("jaxb").toString(), tree.resolve("protobuf/java").toString(), tree.resolve("protobuf/javalite").toString()), PackageScanner.findSourceRoots(tree, new SystemStreamLog()));
+  }
+
+  @Test
+  public void testFindSourceRootsCached() throws IOException {
+    write("cached/a/org/entinae/A.java", "package org.entinae;");
+    write("cached/b/com/example/B.java", "package com.example;");
+    final Path tree = root.resolve("cached").toAbsolutePath();
+    final File cacheFile = root.resolve("packages.cache").toFile();
+    cacheFile.delete();
+
+    PackageScanner.Cache cache = PackageScanner.Cache.load(cacheFile);
+    assertEquals(Arrays.asList(tree.resolve("a").toString(), tree.resolve("b").toString()), PackageScanner.findSourceRoots(tree, cache, new SystemStreamLog()));
+    assertEquals(0, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    cache.save(cacheFile);
+
+    // An unchanged tree is scanned without reading any file
+    cache = PackageScanner.Cache.load(cacheFile);
+    assertEquals(Arrays.asList(tree.resolve("a").toString(), tree.resolve("b").toString()), PackageScanner.findSourceRoots(tree, cache, new SystemStreamLog()));
+    assertEquals(2, cache.getHits());
+    assertEquals(0, cache.getMisses());
+
+    // Only the modified file is read again
+    final Path b = write("cached/b/com/example/B.java", "package example;");
+    Files.setLastModifiedTime(b, FileTime.fromMillis(Files.getLastModifiedTime(b).toMillis() + 2000));
+    cache = PackageScanner.Cache.load(cacheFile);
+    assertEquals(Arrays.asList(tree.resolve("a").toString(), tree.resolve("b/com").toString()), PackageScanner.findSourceRoots(tree, cache, new SystemStreamLog()));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+}
\ No newline at end of file
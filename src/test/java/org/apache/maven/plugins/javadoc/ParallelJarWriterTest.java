@@ -0,0 +1,122 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.Test;
+
+public class ParallelJarWriterTest {
+  private static void write(final File file, final String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testWrite() throws IOException {
+    final File dir = new File("target/parallel-jar/apidocs");
+    final StringBuilder html = new StringBuilder();
+    for (int i = 0; i < 1000; ++i)
+      html.append("<a href=\"p/C").append(i).append(".html\">C").append(i).append("</a>\n");
+
+    write(new File(dir, "index.html"), html.toString());
+    write(new File(dir, "p/q/C.html"), "<html/>");
+    write(new File(dir, "p/package-list"), "p");
+    write(new File(dir, "p-q/element-list"), "p.q");
+    write(new File(dir, ".svn/entries"), "excluded");
+    write(new File(dir, "META-INF/MANIFEST.MF"), "Manifest-Version: 0.9\n");
+
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().putValue("Created-By", "test");
+
+    final File jar1 = new File("target/parallel-jar/1.jar");
+    final File jar2 = new File("target/parallel-jar/2.jar");
+    final long time = 1600000000000L;
+    assertEquals(9, ParallelJarWriter.write(jar1, manifest, ParallelJarWriter.scan(Collections.singletonList(dir), null, null), time));
+    dir.setLastModified(System.currentTimeMillis());
+    ParallelJarWriter.write(jar2, manifest, ParallelJarWriter.scan(Collections.singletonList(dir), null, null), time);
+    assertArrayEquals(Files.readAllBytes(jar1.toPath()), Files.readAllBytes(jar2.toPath()));
+
+    final List<String> names = new ArrayList<>();
+    try (final JarInputStream in = new JarInputStream(new FileInputStream(jar1))) {
+      assertEquals("test", in.getManifest().getMainAttributes().getValue("Created-By"));
+      for (JarEntry entry; (entry = in.getNextJarEntry()) != null;) {
+        names.add(entry.getName());
+        // The timestamp is written in UTC, and read in the default time zone
+        assertEquals(LocalDateTime.ofEpochSecond(time / 1000, 0, ZoneOffset.UTC), Instant.ofEpochMilli(entry.getTime()).atZone(ZoneId.systemDefault()).toLocalDateTime());
+        if ("index.html".equals(entry.getName()))
+          assertEquals(html.toString(), new String(IOUtil.toByteArray(in), StandardCharsets.UTF_8));
+      }
+    }
+
+    assertEquals(Arrays.asList("index.html", "p-q/", "p-q/element-list", "p/", "p/package-list", "p/q/", "p/q/C.html"), names);
+  }
+
+  @Test
+  public void testUniqueEntries() throws IOException {
+    final File dir = new File("target/parallel-jar/descriptor");
+    write(new File(dir, "index.html"), "<html/>");
+    write(new File(dir, "pom.xml"), "<project/>");
+    final TreeMap<String,File> files = ParallelJarWriter.scan(Collections.singletonList(dir), null, null);
+    // As added for the Maven descriptor, including the entries that the writer writes itself
+    files.put("META-INF/", dir);
+    files.put("META-INF/MANIFEST.MF", dir);
+    files.put("META-INF/maven/", dir);
+    files.put("META-INF/maven/org.entinae/", dir);
+    files.put("META-INF/maven/org.entinae/test/", dir);
+    files.put("META-INF/maven/org.entinae/test/pom.xml", new File(dir, "pom.xml"));
+
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    final File jar = new File("target/parallel-jar/descriptor.jar");
+    final int count = ParallelJarWriter.write(jar, manifest, files, ParallelJarWriter.DEFAULT_TIME);
+
+    final List<String> names = new ArrayList<>();
+    try (final ZipInputStream in = new ZipInputStream(new FileInputStream(jar))) {
+      for (ZipEntry entry; (entry = in.getNextEntry()) != null;)
+        names.add(entry.getName());
+    }
+
+    assertEquals(count, names.size());
+    assertEquals(names.toString(), names.size(), new HashSet<>(names).size());
+    assertEquals(Arrays.asList("META-INF/", "META-INF/MANIFEST.MF", "META-INF/maven/", "META-INF/maven/org.entinae/", "META-INF/maven/org.entinae/test/", "META-INF/maven/org.entinae/test/pom.xml", "index.html", "pom.xml"), names);
+  }
+}
\ No newline at end of file
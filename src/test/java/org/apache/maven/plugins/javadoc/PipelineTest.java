@@ -0,0 +1,121 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PipelineTest {
+  @Test
+  public void testDepth() throws InterruptedException {
+    final Pipeline pipeline = new Pipeline(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger max = new AtomicInteger();
+    final List<Pipeline.Stage> stages = new ArrayList<>();
+    for (int i = 0; i < 5; ++i) {
+      stages.add(pipeline.submit(() -> {
+        max.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+
+        running.decrementAndGet();
+      }));
+    }
+
+    assertEquals(2, pipeline.getOutstanding());
+    release.countDown();
+    for (final Pipeline.Stage stage : stages) // [L]
+      stage.await();
+
+    assertEquals(0, pipeline.getOutstanding());
+    assertTrue(String.valueOf(max.get()), max.get() <= 2);
+    pipeline.shutdown();
+  }
+
+  @Test
+  public void testInline() {
+    final Pipeline pipeline = new Pipeline(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Pipeline.Stage blocked = pipeline.submit(() -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      }
+      catch (final InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    final Thread[] thread = new Thread[1];
+    final Pipeline.Stage queued = pipeline.submit(() -> thread[0] = Thread.currentThread());
+    assertEquals(0, queued.await());
+    assertSame(Thread.currentThread(), thread[0]);
+    release.countDown();
+    blocked.await();
+    pipeline.shutdown();
+  }
+
+  @Test
+  public void testFailure() {
+    final Pipeline pipeline = new Pipeline(1);
+    final Pipeline.Stage stage = pipeline.submit(() -> {
+      throw new IllegalStateException("prepare");
+    });
+
+    try {
+      stage.await();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+      assertEquals("prepare", e.getMessage());
+    }
+
+    assertEquals(0, pipeline.getOutstanding());
+    pipeline.shutdown();
+  }
+
+  @Test
+  public void testError() {
+    final Pipeline pipeline = new Pipeline(1);
+    final Pipeline.Stage stage = pipeline.submit(() -> {
+      throw new NoClassDefFoundError("prepare");
+    });
+
+    assertSame(stage, stage.getCompletion().join());
+    try {
+      stage.await();
+      fail("Expected NoClassDefFoundError");
+    }
+    catch (final NoClassDefFoundError e) {
+      assertEquals("prepare", e.getMessage());
+    }
+
+    assertEquals(0, pipeline.getOutstanding());
+    pipeline.shutdown();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,300 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+public class ReverseExecutorTest {
+  private static MavenProject newProject(final MavenProject parent, final File dir, final String artifactId, final String ... modules) {
+    final Model model = new Model();
+    model.setGroupId("org.entinae");
+    model.setArtifactId(artifactId);
+    model.setVersion("1.0");
+    for (final String module : modules) // [A]
+      model.addModule(module);
+
+    final MavenProject project = new MavenProject(model);
+    project.setFile(new File(dir, "pom.xml"));
+    project.setParent(parent);
+    return project;
+  }
+
+  private static void addDependency(final MavenProject project, final MavenProject dependency) {
+    final Dependency d = new Dependency();
+    d.setGroupId(dependency.getGroupId());
+    d.setArtifactId(dependency.getArtifactId());
+    d.setVersion(dependency.getVersion());
+    project.getModel().addDependency(d);
+  }
+
+  private static void assertBefore(final List<String> order, final String first, final String second) {
+    assertTrue(first + " before " + second + " in " + order, order.indexOf(first) < order.indexOf(second));
+  }
+
+  private static List<String> run(final int threads) {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a", "b");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final MavenProject b = newProject(parent, new File(root, "b"), "b", "c", "d");
+    final MavenProject c = newProject(b, new File(root, "b/c"), "c");
+    final MavenProject d = newProject(b, new File(root, "b/d"), "d");
+    addDependency(c, a);
+
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    final ReverseExecutor executor = new ReverseExecutor();
+    executor.setThreads(threads);
+    for (final MavenProject project : new MavenProject[] {parent, a, b, c, d}) // [A]
+      if (executor.submit(project, () -> order.add(project.getArtifactId())))
+        assertEquals(5, order.size());
+
+    return order;
+  }
+
+  @Test
+  public void testSynchronous() {
+    assertEquals(Arrays.asList("a", "c", "d", "b", "parent"), run(1));
+  }
+
+  @Test
+  public void testParallel() {
+    for (int i = 0; i < 20; ++i) {
+      final List<String> order = run(4);
+      assertEquals(5, order.size());
+      assertBefore(order, "a", "c");
+      assertBefore(order, "c", "b");
+      assertBefore(order, "d", "b");
+      assertBefore(order, "a", "parent");
+      assertBefore(order, "b", "parent");
+    }
+  }
+
+  @Test
+  public void testParallelPipeline() {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a", "b");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final MavenProject b = newProject(parent, new File(root, "b"), "b");
+    addDependency(b, a);
+    for (int i = 0; i < 20; ++i) {
+      final List<String> order = Collections.synchronizedList(new ArrayList<>());
+      final ReverseExecutor executor = new ReverseExecutor();
+      executor.setThreads(2);
+      executor.setPipelineDepth(1);
+      for (final MavenProject project : new MavenProject[] {parent, a, b}) // [A]
+        executor.submit(project, () -> order.add("prepare " + project.getArtifactId()), () -> order.add(project.getArtifactId()));
+
+      assertEquals(6, order.size());
+      assertBefore(order, "prepare a", "a");
+      assertBefore(order, "prepare b", "b");
+      assertBefore(order, "prepare parent", "parent");
+      assertBefore(order, "a", "prepare b");
+      assertBefore(order, "a", "prepare parent");
+      assertBefore(order, "b", "prepare parent");
+    }
+  }
+
+  @Test
+  public void testParallelFailure() {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final ReverseExecutor executor = new ReverseExecutor();
+    executor.setThreads(2);
+    assertFalse(executor.submit(parent, () -> fail("Expected parent to not run")));
+    try {
+      executor.submit(a, () -> {
+        throw new IllegalStateException("a");
+      });
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+      assertEquals("Runnable of org.entinae:a:jar:1.0 has failed: a", e.getMessage());
+      assertEquals("a", e.getCause().getMessage());
+    }
+  }
+
+  @Test(timeout=10000)
+  public void testParallelError() {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final ReverseExecutor executor = new ReverseExecutor();
+    executor.setThreads(2);
+    executor.setPipelineDepth(1);
+    assertFalse(executor.submit(parent, () -> fail("Expected parent to not run")));
+    try {
+      executor.submit(a, () -> {
+        throw new NoClassDefFoundError("a");
+      }, () -> fail("Expected a to not run"));
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+      assertEquals("Runnable of org.entinae:a:jar:1.0 has failed: a", e.getMessage());
+      assertTrue(e.getCause() instanceof NoClassDefFoundError);
+    }
+  }
+
+  @Test(timeout=10000)
+  public void testParallelFailAtEnd() {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a", "b", "c");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final MavenProject b = newProject(parent, new File(root, "b"), "b");
+    final MavenProject c = newProject(parent, new File(root, "c"), "c");
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    final ReverseExecutor executor = new ReverseExecutor();
+    executor.setThreads(2);
+    assertFalse(executor.submit(parent, () -> order.add("parent")));
+    assertFalse(executor.submit(a, () -> {
+      throw new IllegalStateException("a");
+    }));
+    try {
+      executor.await(a);
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+      assertEquals("Runnable of org.entinae:a:jar:1.0 has failed: a", e.getMessage());
+    }
+
+    // The failure is reported once, and the remaining projects of the reactor are still run, whereas the parent of the failed
+    // project is not
+    assertFalse(executor.submit(b, () -> order.add("b")));
+    executor.await(b);
+    assertTrue(executor.submit(c, () -> order.add("c")));
+    assertEquals(Arrays.asList("b", "c"), order);
+  }
+
+  private static void testFailureReset(final int threads) {
+    final File root = new File("target/reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a", "b");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final MavenProject b = newProject(parent, new File(root, "b"), "b");
+    final ReverseExecutor executor = new ReverseExecutor();
+    executor.setThreads(threads);
+    assertFalse(executor.submit(parent, () -> fail("Expected parent to not run")));
+    try {
+      executor.submit(a, () -> {
+        throw new IllegalStateException("a");
+      });
+      executor.submit(b, () -> {});
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+      assertEquals("Runnable of org.entinae:a:jar:1.0 has failed: a", e.getMessage());
+    }
+
+    // The failure is not rethrown in the following reactor
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    assertFalse(executor.submit(parent, () -> order.add("parent")));
+    assertFalse(executor.submit(a, () -> order.add("a")));
+    assertTrue(executor.submit(b, () -> order.add("b")));
+    assertEquals(3, order.size());
+    assertEquals("parent", order.get(2));
+  }
+
+  @Test
+  public void testSynchronousFailureReset() {
+    testFailureReset(1);
+  }
+
+  @Test
+  public void testParallelFailureReset() {
+    testFailureReset(2);
+  }
+
+  @Test
+  public void testFileSystemRoot() {
+    final File root = new File(File.listRoots()[0], "reactor");
+    final MavenProject parent = newProject(null, root, "parent", "a");
+    final MavenProject a = newProject(parent, new File(root, "a"), "a");
+    final List<String> order = new ArrayList<>();
+    final ReverseExecutor executor = new ReverseExecutor();
+    assertFalse(executor.submit(parent, () -> order.add("parent")));
+    assertTrue(executor.submit(a, () -> order.add("a")));
+    assertEquals(Arrays.asList("a", "parent"), order);
+  }
+
+  @Test
+  public void testLargeReactor() {
+    final int size = 10000;
+    final Random random = new Random(size);
+    final int[] parents = new int[size];
+    final List<List<String>> modules = new ArrayList<>(size);
+    modules.add(new ArrayList<>());
+    for (int i = 1; i < size; ++i) { // [A]
+      parents[i] = random.nextInt(i);
+      modules.get(parents[i]).add("m" + i);
+      modules.add(new ArrayList<>());
+    }
+
+    final File root = new File("target/reactor10k");
+    final MavenProject[] projects = new MavenProject[size];
+    final File[] dirs = new File[size];
+    dirs[0] = root;
+    projects[0] = newProject(null, root, "m0", modules.get(0).toArray(new String[0]));
+    for (int i = 1; i < size; ++i) { // [A]
+      dirs[i] = new File(dirs[parents[i]], "m" + i);
+      projects[i] = newProject(projects[parents[i]], dirs[i], "m" + i, modules.get(i).toArray(new String[0]));
+    }
+
+    // Shuffle the order of submission, whereby a project is still submitted after its parent, as it is in a reactor
+    final List<Integer> order = new ArrayList<>(size);
+    final List<Integer> ready = new ArrayList<>();
+    final List<List<Integer>> children = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) // [A]
+      children.add(new ArrayList<>());
+
+    for (int i = 1; i < size; ++i) // [A]
+      children.get(parents[i]).add(i);
+
+    ready.add(0);
+    while (ready.size() > 0) {
+      final int index = random.nextInt(ready.size());
+      final int next = ready.get(index);
+      ready.set(index, ready.get(ready.size() - 1));
+      ready.remove(ready.size() - 1);
+      order.add(next);
+      ready.addAll(children.get(next));
+    }
+
+    final int[] ran = new int[size];
+    final int[] count = {0};
+    final ReverseExecutor executor = new ReverseExecutor();
+    for (int i = 0; i < size; ++i) { // [A]
+      final int project = order.get(i);
+      assertEquals(i == size - 1, executor.submit(projects[project], () -> ran[project] = ++count[0]));
+    }
+
+    // Every project has run once, after all of its modules, whereby the modules were found by the lookups of their parents' paths
+    assertEquals(size, count[0]);
+    assertEquals(size, ran[0]);
+    for (int i = 1; i < size; ++i) // [A]
+      assertTrue(ran[i] > 0 && ran[i] < ran[parents[i]]);
+  }
+}
\ No newline at end of file
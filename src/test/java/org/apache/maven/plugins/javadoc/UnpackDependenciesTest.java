@@ -0,0 +1,117 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Test;
+
+public class UnpackDependenciesTest {
+  private static void addEntry(final ZipOutputStream out, final String name, final String content) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+  }
+
+  @Test
+  public void testExtractPackageLists() throws IOException {
+    final File jarFile = new File("target/unpack/a-1.0-javadoc.jar");
+    jarFile.getParentFile().mkdirs();
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+      addEntry(out, "index.html", "<html/>");
+      addEntry(out, "org/entinae/a/A.html", "<html/>");
+      addEntry(out, "org/entinae/a/package-list", "nested");
+      addEntry(out, "element-list", "module:a\norg.entinae.a\n");
+      addEntry(out, "package-list", "org.entinae.a\n");
+    }
+
+    final File destDir = new File("target/unpack/javadoc");
+    assertEquals(2, UnpackDependencies.extractPackageLists(jarFile, destDir));
+    final String[] names = destDir.list();
+    Arrays.sort(names);
+    assertArrayEquals(new String[] {"element-list", "package-list"}, names);
+    assertEquals("org.entinae.a\n", new String(Files.readAllBytes(new File(destDir, "package-list").toPath()), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testResolveOnce() throws InterruptedException {
+    final ConcurrentHashMap<Artifact,CompletableFuture<String>> map = new ConcurrentHashMap<>();
+    final Artifact artifact = new DefaultArtifact("org.entinae", "a", "1.0", "compile", "jar", null, new DefaultArtifactHandler());
+    final Metrics metrics = new Metrics("org.entinae:a:jar:1.0", "jar");
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(1);
+    final Function<Artifact,String> function = (final Artifact a) -> {
+      calls.incrementAndGet();
+      started.countDown();
+      try {
+        Thread.sleep(200);
+      }
+      catch (final InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+
+      return a.getArtifactId();
+    };
+
+    final Set<String> results = ConcurrentHashMap.newKeySet();
+    final Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; ++i) {
+      threads[i] = new Thread(() -> results.add(UnpackDependencies.resolveOnce(map, artifact, function, metrics)));
+      threads[i].start();
+      if (i == 0)
+        started.await();
+    }
+
+    for (final Thread thread : threads)
+      thread.join();
+
+    assertEquals(1, calls.get());
+    assertEquals(Collections.singleton("a"), results);
+
+    // A failed resolution is not retained
+    final Artifact b = new DefaultArtifact("org.entinae", "b", "1.0", "compile", "jar", null, new DefaultArtifactHandler());
+    try {
+      UnpackDependencies.resolveOnce(map, b, (final Artifact a) -> {
+        throw new IllegalStateException();
+      }, metrics);
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+
+    assertEquals("b", UnpackDependencies.resolveOnce(map, b, Artifact::getArtifactId, metrics));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class WarmupQueueTest {
+  @Test(timeout=10000)
+  public void testWarmup() throws IOException, InterruptedException {
+    final List<String> paths = Collections.synchronizedList(new ArrayList<>());
+    final Semaphore arrived = new Semaphore(0);
+    final Semaphore responses = new Semaphore(0);
+    final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/", (final HttpExchange exchange) -> {
+      paths.add(exchange.getRequestURI().getPath());
+      arrived.release();
+      try {
+        // A slow javadoc.io, which responds only when the test lets it
+        responses.acquire();
+      }
+      catch (final InterruptedException e) {
+      }
+
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    server.start();
+    final String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    try {
+      // The submitting thread does not wait on the requests, as none of them is responded to yet
+      final WarmupQueue queue = new WarmupQueue(0);
+      assertTrue(queue.submit(baseUrl + "/a/"));
+      assertTrue(queue.submit(baseUrl + "/b/"));
+      assertFalse(queue.submit(baseUrl + "/a/"));
+      for (int i = 0; i < 10; ++i)
+        assertTrue(queue.submit(baseUrl + "/c" + i + "/"));
+
+      // The requests are made one at a time, in the order of submission
+      arrived.acquire();
+      assertEquals(Collections.singletonList("/a/"), paths);
+      assertEquals(0, queue.getSent());
+      responses.release();
+      arrived.acquire();
+      assertEquals(Arrays.asList("/a/", "/b/"), paths);
+      assertEquals(1, queue.getSent());
+
+      // The requests that are pending behind the one in flight are cancelled
+      assertEquals(10, queue.close());
+      assertFalse(queue.submit(baseUrl + "/d/"));
+      responses.release(12);
+      assertEquals(Arrays.asList("/a/", "/b/"), paths);
+    }
+    finally {
+      server.stop(0);
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout=10000)
+  public void testHostHealth() throws IOException, InterruptedException {
+    final CountDownLatch requests = new CountDownLatch(HostHealth.FAILURE_THRESHOLD * 2);
+    final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", (final HttpExchange exchange) -> {
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+      requests.countDown();
+    });
+    server.start();
+    final String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    try {
+      // Failed warm-up requests do not open the circuit of the host for the requests of the build
+      final WarmupQueue queue = new WarmupQueue(0);
+      for (int i = 0; i < HostHealth.FAILURE_THRESHOLD * 2; ++i)
+        assertTrue(queue.submit(baseUrl + "/" + i + "/"));
+
+      requests.await();
+      assertFalse(HostHealth.of(new URL(baseUrl)).isOpen());
+      assertEquals(0, queue.close());
+    }
+    finally {
+      server.stop(0);
+    }
+  }
+}
\ No newline at end of file
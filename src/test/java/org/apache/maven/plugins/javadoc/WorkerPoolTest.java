@@ -0,0 +1,73 @@
+/* Copyright (c) 2019 ENTINAE
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.apache.maven.plugins.javadoc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+public class WorkerPoolTest {
+  @Test
+  public void testReuse() throws IOException {
+    final File src = new File("target/worker-pool/src/p");
+    src.mkdirs();
+    Files.write(new File(src, "A.java").toPath(), "package p;\n/** A. */\npublic class A {\n}".getBytes(StandardCharsets.UTF_8));
+
+    final WorkerPool pool = new WorkerPool(1, "128m");
+    try {
+      for (int i = 0; i < 2; ++i) {
+        final File out = new File("target/worker-pool/apidocs" + i);
+        final WorkerPool.Result result = pool.run(new String[] {"-quiet", "-d", out.getAbsolutePath(), "-sourcepath", src.getParentFile().getAbsolutePath(), "p"});
+        assertEquals(result.getErr(), 0, result.getExitCode());
+        assertTrue(new File(out, "p/A.html").exists());
+      }
+
+      assertEquals(1, pool.getStarted());
+    }
+    finally {
+      pool.close();
+      pool.report(new SystemStreamLog());
+    }
+  }
+
+  @Test
+  public void testStartFailure() {
+    // A worker with an invalid heap fails to start, and the next attempt must fail in the same way
+    final WorkerPool pool = new WorkerPool(1, "1");
+    try {
+      for (int i = 0; i < 2; ++i) {
+        try {
+          pool.run(new String[] {"-help"});
+          fail("Expected IOException");
+        }
+        catch (final IOException e) {
+        }
+      }
+
+      assertEquals(0, pool.getStarted());
+    }
+    finally {
+      pool.close();
+    }
+  }
+}
\ No newline at end of file